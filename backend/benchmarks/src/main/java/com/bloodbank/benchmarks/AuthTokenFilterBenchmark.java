@@ -0,0 +1,75 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.model.Role;
+import com.bloodbank.security.jwt.AuthTokenFilter;
+import com.bloodbank.security.jwt.JwtUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One authenticated request through {@link AuthTokenFilter}, from reading the header to populating
+ * the security context. Requests rotate over {@code users} distinct tokens; with
+ * {@code tokenCacheEntries=1} every request misses the verified-token cache and pays for a full
+ * parse, which is the cost of a cold cache or of a cache too small for the active user count.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AuthTokenFilterBenchmark {
+    @Param({"64"})
+    public int users;
+
+    @Param({"10000", "1"})
+    public int tokenCacheEntries;
+
+    private AuthTokenFilter filter;
+    private String[] headers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        JwtUtils jwtUtils = Fixtures.jwtUtils(tokenCacheEntries);
+        filter = new AuthTokenFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "tokenVersionService", Fixtures.tokenVersionService());
+
+        headers = new String[users];
+        for (int i = 0; i < users; i++) {
+            Authentication authentication = Fixtures.authentication(Fixtures.user(i + 1, Role.ERole.ROLE_PATIENT));
+            headers[i] = "Bearer " + jwtUtils.generateJwtToken(authentication);
+        }
+    }
+
+    @Benchmark
+    public Authentication filter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/blood-requests/patient/1");
+        request.addHeader("Authorization", headers[next]);
+        next = (next + 1) % headers.length;
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.model.BloodRequest;
+import com.bloodbank.service.BloodRequestService;
+import com.bloodbank.service.StockService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Approvals per second with sixteen threads approving requests for the same blood group, through
+ * today's conditional-update path and through the read-modify-write path it replaced. The old path
+ * is reproduced with plain SQL because the {@code Stock} entity now carries a version column, which
+ * would turn its lost updates into optimistic-lock failures.
+ * <p>
+ * The old path does not check the request status and loses concurrent decrements, so it does less
+ * work per approval than the new one and is not correct; it is only here as the throughput baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class ConcurrentApprovalBenchmark {
+    private static final String BLOOD_GROUP = "O+";
+    private static final int STOCK_LEVEL = 10_000_000;
+
+    @State(Scope.Benchmark)
+    public static class Application {
+        ConfigurableApplicationContext context;
+        BloodRequestService requestService;
+        StockService stockService;
+        JdbcTemplate jdbcTemplate;
+        TransactionTemplate transactionTemplate;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = EmbeddedApplication.start();
+            requestService = context.getBean(BloodRequestService.class);
+            stockService = context.getBean(StockService.class);
+            jdbcTemplate = context.getBean(JdbcTemplate.class);
+            transactionTemplate = context.getBean(TransactionTemplate.class);
+        }
+
+        @Setup(Level.Iteration)
+        public void refill() {
+            stockService.updateStock(BLOOD_GROUP, STOCK_LEVEL);
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+
+        /**
+         * The pre-change approval: read the request and the stock level, then write both back.
+         */
+        void approveByReadModifyWrite(Long requestId) {
+            transactionTemplate.executeWithoutResult(status -> {
+                Integer units = jdbcTemplate.queryForObject(
+                        "SELECT unit FROM blood_requests WHERE id = ?", Integer.class, requestId);
+                Integer level = jdbcTemplate.queryForObject(
+                        "SELECT unit FROM stock WHERE blood_group = ?", Integer.class, BLOOD_GROUP);
+                if (level < units) {
+                    throw new IllegalStateException("Insufficient blood stock. Only " + level + " units available.");
+                }
+                jdbcTemplate.update("UPDATE stock SET unit = ? WHERE blood_group = ?", level - units, BLOOD_GROUP);
+                jdbcTemplate.update("UPDATE blood_requests SET status = 'APPROVED' WHERE id = ?", requestId);
+            });
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PendingRequest {
+        Long id;
+
+        // H2 can hand out the same identity to concurrent inserts, so the setup inserts one at a time.
+        @Setup(Level.Invocation)
+        public void create(Application application) {
+            synchronized (application) {
+                id = application.requestService.createRequest(pendingRequest()).getId();
+            }
+        }
+
+        private static BloodRequest pendingRequest() {
+            BloodRequest request = new BloodRequest();
+            request.setPatientName("Bench Patient");
+            request.setPatientAge(40);
+            request.setReason("Benchmark");
+            request.setBloodGroup(BLOOD_GROUP);
+            request.setUnit(1);
+            return request;
+        }
+    }
+
+    @Benchmark
+    public BloodRequest conditionalUpdate(Application application, PendingRequest pending) {
+        return application.requestService.approveRequest(pending.id);
+    }
+
+    @Benchmark
+    public void readModifyWrite(Application application, PendingRequest pending) {
+        application.approveByReadModifyWrite(pending.id);
+    }
+}
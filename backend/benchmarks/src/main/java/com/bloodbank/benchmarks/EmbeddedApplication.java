@@ -0,0 +1,46 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.BloodBankApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+
+/**
+ * Starts the backend on a random port against an in-memory H2 database in MySQL mode. The schema
+ * comes from the entities rather than the MySQL migrations.
+ * <p>
+ * The settings are applied as system properties so that they take precedence over
+ * {@code application.properties}, while {@code -D} options and command-line arguments can still
+ * override them.
+ */
+public final class EmbeddedApplication {
+    private static final Map<String, String> PROPERTIES = Map.ofEntries(
+            Map.entry("server.port", "0"),
+            Map.entry("management.server.port", "0"),
+            Map.entry("spring.datasource.url", "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1;MODE=MySQL"),
+            Map.entry("spring.datasource.driver-class-name", "org.h2.Driver"),
+            Map.entry("spring.datasource.username", "sa"),
+            Map.entry("spring.datasource.password", ""),
+            Map.entry("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect"),
+            Map.entry("spring.flyway.enabled", "false"),
+            Map.entry("spring.jpa.hibernate.ddl-auto", "create-drop"),
+            Map.entry("spring.jpa.show-sql", "false"),
+            Map.entry("logging.level.root", "WARN"));
+
+    private EmbeddedApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(String... args) {
+        PROPERTIES.forEach((key, value) -> {
+            if (System.getProperty(key) == null) {
+                System.setProperty(key, value);
+            }
+        });
+        return SpringApplication.run(BloodBankApplication.class, args);
+    }
+
+    public static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+}
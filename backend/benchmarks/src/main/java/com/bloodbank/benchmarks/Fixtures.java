@@ -0,0 +1,140 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.model.BloodRequest;
+import com.bloodbank.model.Donor;
+import com.bloodbank.model.Patient;
+import com.bloodbank.model.Role;
+import com.bloodbank.model.User;
+import com.bloodbank.repository.UserRepository;
+import com.bloodbank.security.jwt.JwtUtils;
+import com.bloodbank.security.services.TokenVersionService;
+import com.bloodbank.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Builds the components and object graphs the benchmarks run against, without a Spring context.
+ */
+final class Fixtures {
+    static final String JWT_SECRET = "bloodBankManagementSystemSecretKeyForJWTTokenGeneration2024";
+    static final int JWT_EXPIRATION_MS = 86400000;
+
+    private static final String[] BLOOD_GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+
+    private Fixtures() {
+    }
+
+    static JwtUtils jwtUtils(int cacheMaxEntries) {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", JWT_EXPIRATION_MS);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxEntries", cacheMaxEntries);
+        ReflectionTestUtils.setField(jwtUtils, "meterRegistry", new SimpleMeterRegistry());
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    /**
+     * A token version service whose repository reports every user as enabled at version 0.
+     */
+    static TokenVersionService tokenVersionService() {
+        UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findActiveTokenVersion")) {
+                        return Optional.of(0L);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        TokenVersionService tokenVersionService = new TokenVersionService();
+        ReflectionTestUtils.setField(tokenVersionService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(tokenVersionService, "cacheTtlMs", 30000L);
+        ReflectionTestUtils.setField(tokenVersionService, "cacheMaxEntries", 100000);
+        return tokenVersionService;
+    }
+
+    static Authentication authentication(User user) {
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    static User user(long id, Role.ERole... roles) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3Fq3Vh0Ai9S3ZkCwEahJ3xW");
+        user.setFirstName("First" + id);
+        user.setLastName("Last" + id);
+        user.setEmail("user" + id + "@example.com");
+        Set<Role> roleSet = new HashSet<>();
+        for (Role.ERole name : roles) {
+            roleSet.add(new Role((long) name.ordinal() + 1, name));
+        }
+        user.setRoles(roleSet);
+        return user;
+    }
+
+    static Donor donor(long id) {
+        Donor donor = new Donor();
+        donor.setId(id);
+        donor.setUser(user(id, Role.ERole.ROLE_DONOR));
+        donor.setProfilePic("donor" + id + ".jpg");
+        donor.setBloodGroup(BLOOD_GROUPS[(int) (id % BLOOD_GROUPS.length)]);
+        donor.setAddress(id + " Donor Street");
+        donor.setMobile("0170000" + id);
+        donor.setLatitude(23.8 + id * 0.001);
+        donor.setLongitude(90.4 + id * 0.001);
+        return donor;
+    }
+
+    static Patient patient(long id) {
+        Patient patient = new Patient();
+        patient.setId(id);
+        patient.setUser(user(100000 + id, Role.ERole.ROLE_PATIENT));
+        patient.setProfilePic("patient" + id + ".jpg");
+        patient.setAge(30 + (int) (id % 40));
+        patient.setBloodGroup(BLOOD_GROUPS[(int) (id % BLOOD_GROUPS.length)]);
+        patient.setDisease("Anemia");
+        patient.setDoctorName("Dr. Smith");
+        patient.setAddress(id + " Patient Street");
+        patient.setMobile("0180000" + id);
+        return patient;
+    }
+
+    static List<Donor> donors(int count) {
+        List<Donor> donors = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            donors.add(donor(id));
+        }
+        return donors;
+    }
+
+    static List<BloodRequest> requests(int count) {
+        List<BloodRequest> requests = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            Patient patient = patient(id);
+            BloodRequest request = new BloodRequest();
+            request.setId(id);
+            request.setPatient(patient);
+            request.setDonor(id % 2 == 0 ? donor(id) : null);
+            request.setPatientName(patient.getUser().getFirstName() + " " + patient.getUser().getLastName());
+            request.setPatientAge(patient.getAge());
+            request.setReason("Scheduled surgery");
+            request.setBloodGroup(patient.getBloodGroup());
+            request.setUnit(1 + (int) (id % 3));
+            request.setDate(LocalDate.of(2024, 1, 1).plusDays(id % 365));
+            requests.add(request);
+        }
+        return requests;
+    }
+}
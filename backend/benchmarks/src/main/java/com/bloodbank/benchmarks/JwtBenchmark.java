@@ -0,0 +1,70 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.model.Role;
+import com.bloodbank.security.jwt.JwtUtils;
+import com.bloodbank.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing and verifying access tokens. {@code legacyVerify} repeats what the filter did before the
+ * key and parser were built once: derive the key and parse the token twice, once to validate it and
+ * once to read the subject.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    private JwtUtils jwtUtils;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = Fixtures.jwtUtils(10000);
+        authentication = Fixtures.authentication(Fixtures.user(1, Role.ERole.ROLE_DONOR));
+        token = jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return jwtUtils.parseClaims(token);
+    }
+
+    @Benchmark
+    public UserDetailsImpl principalFromCache() {
+        return jwtUtils.getUserDetailsFromJwtToken(token);
+    }
+
+    @Benchmark
+    public String legacyVerify() {
+        SecretKey key = Keys.hmacShaKeyFor(Fixtures.JWT_SECRET.getBytes(StandardCharsets.UTF_8));
+        Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
+        key = Keys.hmacShaKeyFor(Fixtures.JWT_SECRET.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload().getSubject();
+    }
+}
@@ -0,0 +1,68 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.dto.BloodRequestResponse;
+import com.bloodbank.dto.DonorResponse;
+import com.bloodbank.model.BloodRequest;
+import com.bloodbank.model.Donor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing list responses, either as the entity graphs the controllers used to return (users
+ * with password hashes and roles included) or through the response DTOs they return now.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+    @Param({"20", "200"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<BloodRequest> requests;
+    private List<Donor> donors;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder().findAndAddModules().build();
+        requests = Fixtures.requests(size);
+        donors = Fixtures.donors(size);
+    }
+
+    @Benchmark
+    public byte[] requestEntities() throws Exception {
+        return objectMapper.writeValueAsBytes(requests);
+    }
+
+    @Benchmark
+    public byte[] requestResponses() throws Exception {
+        return objectMapper.writeValueAsBytes(requests.stream().map(BloodRequestResponse::from).toList());
+    }
+
+    @Benchmark
+    public byte[] donorEntities() throws Exception {
+        return objectMapper.writeValueAsBytes(donors);
+    }
+
+    @Benchmark
+    public byte[] donorResponses() throws Exception {
+        return objectMapper.writeValueAsBytes(donors.stream().map(DonorResponse::from).toList());
+    }
+}
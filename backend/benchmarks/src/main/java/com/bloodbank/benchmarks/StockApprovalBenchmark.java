@@ -0,0 +1,166 @@
+package com.bloodbank.benchmarks;
+
+import com.bloodbank.dto.BulkActionResult;
+import com.bloodbank.model.BloodDonate;
+import com.bloodbank.model.BloodRequest;
+import com.bloodbank.model.Donor;
+import com.bloodbank.model.User;
+import com.bloodbank.repository.DonorRepository;
+import com.bloodbank.repository.UserRepository;
+import com.bloodbank.service.BloodDonateService;
+import com.bloodbank.service.BloodRequestService;
+import com.bloodbank.service.StockService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Approving requests and donations through the real services and repositories, against an
+ * in-memory H2 database in MySQL mode. Pending rows are inserted in per-invocation setup so only the
+ * approval itself is measured; at these durations the setup overhead JMH warns about is negligible.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StockApprovalBenchmark {
+    private static final String[] BLOOD_GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+    private static final int STOCK_LEVEL = 10_000_000;
+
+    @State(Scope.Benchmark)
+    public static class Application {
+        ConfigurableApplicationContext context;
+        BloodRequestService requestService;
+        BloodDonateService donateService;
+        StockService stockService;
+        Donor donor;
+
+        @Setup(Level.Trial)
+        public void start() {
+            context = EmbeddedApplication.start();
+            requestService = context.getBean(BloodRequestService.class);
+            donateService = context.getBean(BloodDonateService.class);
+            stockService = context.getBean(StockService.class);
+
+            User user = Fixtures.user(0);
+            user.setId(null);
+            user = context.getBean(UserRepository.class).save(user);
+            Donor template = Fixtures.donor(1);
+            template.setId(null);
+            template.setUser(user);
+            donor = context.getBean(DonorRepository.class).save(template);
+        }
+
+        @Setup(Level.Iteration)
+        public void refill() {
+            for (String bloodGroup : BLOOD_GROUPS) {
+                stockService.updateStock(bloodGroup, bloodGroup.equals("AB+") ? 0 : STOCK_LEVEL);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void stop() {
+            context.close();
+        }
+
+        BloodRequest pendingRequest(String bloodGroup) {
+            BloodRequest request = new BloodRequest();
+            request.setPatientName("Bench Patient");
+            request.setPatientAge(40);
+            request.setReason("Benchmark");
+            request.setBloodGroup(bloodGroup);
+            request.setUnit(1);
+            return requestService.createRequest(request);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PendingRequest {
+        Long id;
+
+        @Setup(Level.Invocation)
+        public void create(Application application) {
+            id = application.pendingRequest("A+").getId();
+        }
+    }
+
+    /**
+     * AB+ stock is kept empty, so approving with substitution always draws on compatible groups.
+     */
+    @State(Scope.Thread)
+    public static class PendingSubstituteRequest {
+        Long id;
+
+        @Setup(Level.Invocation)
+        public void create(Application application) {
+            id = application.pendingRequest("AB+").getId();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PendingBatch {
+        @Param({"50"})
+        public int batchSize;
+
+        List<Long> ids;
+
+        @Setup(Level.Invocation)
+        public void create(Application application) {
+            ids = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                ids.add(application.pendingRequest(BLOOD_GROUPS[i % BLOOD_GROUPS.length]).getId());
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PendingDonation {
+        Long id;
+
+        @Setup(Level.Invocation)
+        public void create(Application application) {
+            BloodDonate donation = new BloodDonate();
+            donation.setDonor(application.donor);
+            donation.setAge(30);
+            donation.setBloodGroup(application.donor.getBloodGroup());
+            donation.setUnit(1);
+            id = application.donateService.createDonation(donation).getId();
+        }
+    }
+
+    @Benchmark
+    public BloodRequest approveRequest(Application application, PendingRequest pending) {
+        return application.requestService.approveRequest(pending.id);
+    }
+
+    @Benchmark
+    public BloodRequest approveRequestWithSubstitution(Application application, PendingSubstituteRequest pending) {
+        return application.requestService.approveRequest(pending.id, true);
+    }
+
+    @Benchmark
+    public List<BulkActionResult> approveRequestsInBulk(Application application, PendingBatch pending) {
+        return application.requestService.approveRequests(pending.ids);
+    }
+
+    @Benchmark
+    public BloodDonate approveDonation(Application application, PendingDonation pending) {
+        return application.donateService.approveDonation(pending.id);
+    }
+}
@@ -0,0 +1,133 @@
+package com.bloodbank.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Thin HTTP client for the backend API that times every call and records it under an endpoint
+ * name with the path variables left as placeholders, e.g. {@code GET /api/donors/user/{userId}}.
+ */
+final class ApiClient {
+    private final HttpClient http;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper;
+    private final LatencyStats stats;
+
+    ApiClient(String baseUrl, ObjectMapper objectMapper, LatencyStats stats) {
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.objectMapper = objectMapper;
+        this.stats = stats;
+    }
+
+    Response get(String endpoint, String path, String token) {
+        return send(endpoint, builder(path, token).GET());
+    }
+
+    Response post(String endpoint, String path, String token, Object body) {
+        return send(endpoint, json(builder(path, token), body, "POST"));
+    }
+
+    Response put(String endpoint, String path, String token, Object body) {
+        return send(endpoint, json(builder(path, token), body, "PUT"));
+    }
+
+    Response upload(String endpoint, String path, String token, String fileName, String content) {
+        String boundary = "loadtest-" + UUID.randomUUID();
+        String body = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: text/csv\r\n\r\n"
+                + content + "\r\n"
+                + "--" + boundary + "--\r\n";
+        return send(endpoint, builder(path, token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8)));
+    }
+
+    private HttpRequest.Builder builder(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private HttpRequest.Builder json(HttpRequest.Builder builder, Object body, String method) {
+        try {
+            byte[] bytes = body == null ? new byte[0] : objectMapper.writeValueAsBytes(body);
+            return builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(bytes));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot serialize request body", e);
+        }
+    }
+
+    private Response send(String endpoint, HttpRequest.Builder builder) {
+        long start = System.nanoTime();
+        int status;
+        byte[] body;
+        try {
+            HttpResponse<byte[]> response = http.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+            status = response.statusCode();
+            body = response.body();
+        } catch (IOException e) {
+            status = -1;
+            body = new byte[0];
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            status = -1;
+            body = new byte[0];
+        }
+        stats.record(endpoint, System.nanoTime() - start, status >= 200 && status < 300);
+        return new Response(status, body);
+    }
+
+    final class Response {
+        private final int status;
+        private final byte[] body;
+
+        private Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+
+        int status() {
+            return status;
+        }
+
+        String text() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * The body as JSON, or a missing node if the call failed or the body is not JSON.
+         */
+        JsonNode json() {
+            if (!ok() || body.length == 0) {
+                return objectMapper.missingNode();
+            }
+            try {
+                return objectMapper.readTree(body);
+            } catch (IOException e) {
+                return objectMapper.missingNode();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.bloodbank.benchmarks.load;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects every response time per endpoint while recording is on, so percentiles are exact rather
+ * than estimated from buckets. A two-minute run at a few thousand requests per second keeps well
+ * under a hundred megabytes of samples.
+ */
+final class LatencyStats {
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    private volatile boolean recording;
+    private long startedAtNanos;
+    private long stoppedAtNanos;
+
+    void start() {
+        startedAtNanos = System.nanoTime();
+        recording = true;
+    }
+
+    void stop() {
+        recording = false;
+        stoppedAtNanos = System.nanoTime();
+    }
+
+    void record(String endpoint, long nanos, boolean success) {
+        if (recording) {
+            endpoints.computeIfAbsent(endpoint, name -> new Endpoint()).add(nanos, success);
+        }
+    }
+
+    double measuredSeconds() {
+        return (stoppedAtNanos - startedAtNanos) / 1e9;
+    }
+
+    List<Summary> summaries() {
+        double seconds = measuredSeconds();
+        List<Summary> summaries = new ArrayList<>();
+        long[] all = new long[0];
+        long allErrors = 0;
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            Endpoint endpoint = entry.getValue();
+            long[] samples;
+            long errors;
+            synchronized (endpoint) {
+                samples = Arrays.copyOf(endpoint.samples, endpoint.size);
+                errors = endpoint.errors;
+            }
+            summaries.add(Summary.of(entry.getKey(), samples, errors, seconds));
+            all = concat(all, samples);
+            allErrors += errors;
+        }
+        summaries.sort(Comparator.comparing(Summary::endpoint));
+        summaries.add(Summary.of("TOTAL", all, allErrors, seconds));
+        return summaries;
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private static final class Endpoint {
+        private long[] samples = new long[1024];
+        private int size;
+        private long errors;
+
+        synchronized void add(long nanos, boolean success) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+            if (!success) {
+                errors++;
+            }
+        }
+    }
+
+    record Summary(String endpoint, long count, long errors, double throughput,
+                   double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+        static Summary of(String endpoint, long[] samples, long errors, double seconds) {
+            Arrays.sort(samples);
+            return new Summary(endpoint, samples.length, errors, seconds > 0 ? samples.length / seconds : 0,
+                    percentile(samples, 0.50), percentile(samples, 0.99), percentile(samples, 0.999),
+                    samples.length == 0 ? 0 : toMillis(samples[samples.length - 1]));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return toMillis(sorted[Math.max(0, index)]);
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.bloodbank.benchmarks.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Harness settings, read from {@code --load.*} arguments. All other arguments are handed to the
+ * embedded application, e.g. {@code --db.bulkhead.enabled=true}.
+ */
+record LoadOptions(String baseUrl, int users, Map<SimulatedUser.Role, Integer> mix, int admins, int donors,
+                   int patients, String password, long thinkMs, int actionsPerSession, double createProbability,
+                   int adminDecisionsPerVisit, double approveProbability, int stockUnits, int warmupSeconds,
+                   int durationSeconds, String reportFile) {
+
+    static LoadOptions from(Map<String, String> values) {
+        return new LoadOptions(
+                values.get("base-url"),
+                intValue(values, "users", 100),
+                mix(values.getOrDefault("mix", "admin:1,donor:6,patient:3")),
+                intValue(values, "admins", 2),
+                intValue(values, "donors", 500),
+                intValue(values, "patients", 500),
+                values.getOrDefault("password", "loadtest123"),
+                Long.parseLong(values.getOrDefault("think-ms", "1000")),
+                intValue(values, "actions-per-session", 10),
+                Double.parseDouble(values.getOrDefault("create-probability", "0.2")),
+                intValue(values, "admin-decisions-per-visit", 3),
+                Double.parseDouble(values.getOrDefault("approve-probability", "0.8")),
+                intValue(values, "stock-units", 1_000_000),
+                intValue(values, "warmup-seconds", 30),
+                intValue(values, "duration-seconds", 120),
+                values.getOrDefault("report-file", "target/loadtest-result.json"));
+    }
+
+    /**
+     * Which role the n-th simulated user plays, in proportion to the role weights.
+     */
+    SimulatedUser.Role roleOf(int index) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int slot = index % total;
+        for (Map.Entry<SimulatedUser.Role, Integer> entry : mix.entrySet()) {
+            slot -= entry.getValue();
+            if (slot < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty user mix");
+    }
+
+    private static Map<SimulatedUser.Role, Integer> mix(String value) {
+        Map<SimulatedUser.Role, Integer> mix = new EnumMap<>(SimulatedUser.Role.class);
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Invalid --load.mix entry: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(SimulatedUser.Role.valueOf(pair[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--load.mix must give at least one role a positive weight");
+        }
+        return mix;
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+}
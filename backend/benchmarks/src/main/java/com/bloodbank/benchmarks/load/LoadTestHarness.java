@@ -0,0 +1,235 @@
+package com.bloodbank.benchmarks.load;
+
+import com.bloodbank.benchmarks.EmbeddedApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives dashboard traffic from many concurrent simulated users and reports throughput and
+ * latency percentiles per endpoint.
+ * <p>
+ * By default the backend is started in this JVM against an in-memory database; any argument that
+ * is not a {@code --load.*} option is passed to it, so the same run can be repeated with e.g.
+ * {@code --spring.threads.virtual.enabled=true} to compare modes. With {@code --load.base-url} the
+ * harness drives an already running deployment instead. Test accounts and stock are seeded through
+ * the API in both cases.
+ */
+public final class LoadTestHarness {
+    private static final String OPTION_PREFIX = "--load.";
+    private static final String[] BLOOD_GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith(OPTION_PREFIX) && arg.contains("=")) {
+                int separator = arg.indexOf('=');
+                values.put(arg.substring(OPTION_PREFIX.length(), separator), arg.substring(separator + 1));
+            } else {
+                applicationArgs.add(arg);
+            }
+        }
+        LoadOptions options = LoadOptions.from(values);
+
+        ConfigurableApplicationContext context = null;
+        String baseUrl = options.baseUrl();
+        if (baseUrl == null) {
+            System.out.println("Starting embedded application " + applicationArgs);
+            context = EmbeddedApplication.start(applicationArgs.toArray(String[]::new));
+            baseUrl = "http://localhost:" + EmbeddedApplication.port(context);
+        }
+
+        try {
+            ObjectMapper objectMapper = JsonMapper.builder()
+                    .findAndAddModules()
+                    .enable(SerializationFeature.INDENT_OUTPUT)
+                    .build();
+            LatencyStats stats = new LatencyStats();
+            ApiClient api = new ApiClient(baseUrl, objectMapper, stats);
+
+            Map<SimulatedUser.Role, List<String>> accounts = seed(api, options);
+            String adminToken = signIn(api, accounts.get(SimulatedUser.Role.ADMIN).get(0), options.password());
+
+            run(api, options, accounts, stats);
+
+            JsonNode runtime = api.get("GET /api/admin/runtime", "/api/admin/runtime", adminToken).json();
+            List<LatencyStats.Summary> summaries = stats.summaries();
+            print(summaries, stats.measuredSeconds());
+            write(objectMapper, options, baseUrl, applicationArgs, stats.measuredSeconds(), summaries, runtime);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    private static Map<SimulatedUser.Role, List<String>> seed(ApiClient api, LoadOptions options) {
+        String prefix = "lt" + Integer.toString(ThreadLocalRandom.current().nextInt(36 * 36 * 36 * 36), 36);
+        Map<SimulatedUser.Role, List<String>> accounts = new EnumMap<>(SimulatedUser.Role.class);
+
+        System.out.printf("Seeding %d admins, %d donors and %d patients (prefix %s)%n",
+                options.admins(), options.donors(), options.patients(), prefix);
+        List<String> admins = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, options.admins()); i++) {
+            String username = prefix + "a" + i;
+            Map<String, Object> signup = Map.of(
+                    "username", username,
+                    "email", username + "@loadtest.local",
+                    "password", options.password(),
+                    "firstName", "Admin",
+                    "lastName", String.valueOf(i),
+                    "role", List.of("admin"));
+            check(api.post("POST /api/auth/signup", "/api/auth/signup", null, signup), "admin signup");
+            admins.add(username);
+        }
+        accounts.put(SimulatedUser.Role.ADMIN, admins);
+        String token = signIn(api, admins.get(0), options.password());
+
+        StringBuilder donors = new StringBuilder("username,email,password,firstName,lastName,bloodGroup,address,mobile\n");
+        List<String> donorNames = new ArrayList<>();
+        for (int i = 0; i < options.donors(); i++) {
+            String username = prefix + "d" + i;
+            donors.append(String.join(",", username, username + "@loadtest.local", options.password(), "Donor",
+                    String.valueOf(i), BLOOD_GROUPS[i % BLOOD_GROUPS.length], i + " Donor Street", "0170" + i)).append('\n');
+            donorNames.add(username);
+        }
+        importAccounts(api, token, "donors", donors.toString(), options.donors());
+        accounts.put(SimulatedUser.Role.DONOR, donorNames);
+
+        StringBuilder patients = new StringBuilder(
+                "username,email,password,firstName,lastName,bloodGroup,address,mobile,age,disease,doctorName\n");
+        List<String> patientNames = new ArrayList<>();
+        for (int i = 0; i < options.patients(); i++) {
+            String username = prefix + "p" + i;
+            patients.append(String.join(",", username, username + "@loadtest.local", options.password(), "Patient",
+                    String.valueOf(i), BLOOD_GROUPS[i % BLOOD_GROUPS.length], i + " Patient Street", "0180" + i,
+                    String.valueOf(20 + i % 60), "Anemia", "Dr. Smith")).append('\n');
+            patientNames.add(username);
+        }
+        importAccounts(api, token, "patients", patients.toString(), options.patients());
+        accounts.put(SimulatedUser.Role.PATIENT, patientNames);
+
+        for (String bloodGroup : BLOOD_GROUPS) {
+            check(api.put("PUT /api/stock/{bloodGroup}",
+                    "/api/stock/" + URLEncoder.encode(bloodGroup, StandardCharsets.UTF_8), token,
+                    Map.of("unit", options.stockUnits())), "stock update");
+        }
+        return accounts;
+    }
+
+    private static void importAccounts(ApiClient api, String token, String kind, String csv, int expected) {
+        if (expected == 0) {
+            return;
+        }
+        ApiClient.Response response = check(api.upload("POST /api/admin/import/" + kind,
+                "/api/admin/import/" + kind, token, kind + ".csv", csv), kind + " import");
+        int imported = response.json().path("imported").asInt();
+        if (imported != expected) {
+            throw new IllegalStateException("Imported " + imported + " of " + expected + " " + kind + ": "
+                    + response.text());
+        }
+    }
+
+    private static void run(ApiClient api, LoadOptions options, Map<SimulatedUser.Role, List<String>> accounts,
+                            LatencyStats stats) throws InterruptedException {
+        AtomicBoolean stopped = new AtomicBoolean();
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(options.users(), runnable -> {
+            Thread thread = new Thread(runnable, "load-user-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Start users evenly over the warm-up so sign-ins do not arrive as a single burst.
+        long warmupMs = TimeUnit.SECONDS.toMillis(options.warmupSeconds());
+        for (int i = 0; i < options.users(); i++) {
+            SimulatedUser.Role role = options.roleOf(i);
+            List<String> usernames = accounts.get(role);
+            if (usernames.isEmpty()) {
+                throw new IllegalArgumentException("No " + role + " accounts seeded for the user mix");
+            }
+            executor.execute(new SimulatedUser(api, role, usernames, options, stopped, i * warmupMs / options.users()));
+        }
+
+        System.out.printf("Running %d users: %ds warm-up, %ds measured%n",
+                options.users(), options.warmupSeconds(), options.durationSeconds());
+        Thread.sleep(warmupMs);
+        stats.start();
+        Thread.sleep(TimeUnit.SECONDS.toMillis(options.durationSeconds()));
+        stats.stop();
+
+        stopped.set(true);
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String signIn(ApiClient api, String username, String password) {
+        ApiClient.Response response = check(api.post("POST /api/auth/signin", "/api/auth/signin", null,
+                Map.of("username", username, "password", password)), "sign-in");
+        return response.json().path("token").asText();
+    }
+
+    private static ApiClient.Response check(ApiClient.Response response, String step) {
+        if (!response.ok()) {
+            throw new IllegalStateException("Seeding failed at " + step + " (HTTP " + response.status() + "): "
+                    + response.text());
+        }
+        return response;
+    }
+
+    private static void print(List<LatencyStats.Summary> summaries, double seconds) {
+        System.out.printf("%nMeasured %.1f s%n", seconds);
+        System.out.printf("%-40s %9s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Count", "Errors", "Req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (LatencyStats.Summary summary : summaries) {
+            System.out.printf("%-40s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    summary.endpoint(), summary.count(), summary.errors(), summary.throughput(),
+                    summary.p50Ms(), summary.p99Ms(), summary.p999Ms(), summary.maxMs());
+        }
+    }
+
+    private static void write(ObjectMapper objectMapper, LoadOptions options, String baseUrl,
+                              List<String> applicationArgs, double seconds, List<LatencyStats.Summary> summaries,
+                              JsonNode runtime) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", Instant.now().toString());
+        report.put("baseUrl", baseUrl);
+        report.put("applicationArgs", applicationArgs);
+        report.put("options", options);
+        report.put("measuredSeconds", seconds);
+        report.put("endpoints", summaries);
+        report.put("runtime", runtime);
+
+        File file = new File(options.reportFile());
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.writeValue(file, report);
+        System.out.println("Report written to " + file.getPath());
+    }
+}
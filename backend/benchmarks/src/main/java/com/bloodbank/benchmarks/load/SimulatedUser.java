@@ -0,0 +1,194 @@
+package com.bloodbank.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One user clicking through a dashboard, following the calls the frontend makes: sign in, load the
+ * dashboard, occasionally submit a request or donation (donors and patients) or work through the
+ * pending queue (admins), and sign in again after a few actions. Pauses between actions are
+ * exponentially distributed around the configured think time.
+ */
+final class SimulatedUser implements Runnable {
+    private static final String[] BLOOD_GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+
+    enum Role {ADMIN, DONOR, PATIENT}
+
+    private final ApiClient api;
+    private final Role role;
+    private final List<String> usernames;
+    private final LoadOptions options;
+    private final AtomicBoolean stopped;
+    private final long startDelayMs;
+
+    private String token;
+    private long userId;
+
+    SimulatedUser(ApiClient api, Role role, List<String> usernames, LoadOptions options, AtomicBoolean stopped,
+                  long startDelayMs) {
+        this.api = api;
+        this.role = role;
+        this.usernames = usernames;
+        this.options = options;
+        this.stopped = stopped;
+        this.startDelayMs = startDelayMs;
+    }
+
+    @Override
+    public void run() {
+        pause(startDelayMs);
+        while (!stopped.get()) {
+            if (!signIn()) {
+                pause(options.thinkMs());
+                continue;
+            }
+            for (int action = 0; action < options.actionsPerSession() && !stopped.get(); action++) {
+                switch (role) {
+                    case ADMIN -> adminVisit();
+                    case DONOR -> donorVisit();
+                    case PATIENT -> patientVisit();
+                }
+                think();
+            }
+        }
+    }
+
+    private boolean signIn() {
+        String username = usernames.get(random().nextInt(usernames.size()));
+        JsonNode response = api.post("POST /api/auth/signin", "/api/auth/signin", null,
+                Map.of("username", username, "password", options.password())).json();
+        if (!response.hasNonNull("token")) {
+            return false;
+        }
+        token = response.get("token").asText();
+        userId = response.get("id").asLong();
+        return true;
+    }
+
+    private void adminVisit() {
+        JsonNode summary = api.get("GET /api/admin/summary", "/api/admin/summary", token).json();
+        double tab = random().nextDouble();
+        if (tab < 0.2) {
+            api.get("GET /api/donors", "/api/donors", token);
+        } else if (tab < 0.4) {
+            api.get("GET /api/patients", "/api/patients", token);
+        } else if (tab < 0.6) {
+            api.get("GET /api/donations", "/api/donations", token);
+        }
+
+        List<Long> requestIds = ids(summary.path("pendingRequests").path("items"));
+        List<Long> donationIds = ids(summary.path("pendingDonations").path("items"));
+        for (int i = 0; i < options.adminDecisionsPerVisit() && !stopped.get(); i++) {
+            boolean approve = random().nextDouble() < options.approveProbability();
+            if (!donationIds.isEmpty() && (requestIds.isEmpty() || random().nextBoolean())) {
+                Long id = donationIds.remove(random().nextInt(donationIds.size()));
+                api.put(approve ? "PUT /api/donations/{id}/approve" : "PUT /api/donations/{id}/reject",
+                        "/api/donations/" + id + (approve ? "/approve" : "/reject"), token, null);
+                api.get("GET /api/donations", "/api/donations", token);
+            } else if (!requestIds.isEmpty()) {
+                Long id = requestIds.remove(random().nextInt(requestIds.size()));
+                api.put(approve ? "PUT /api/requests/{id}/approve" : "PUT /api/requests/{id}/reject",
+                        "/api/requests/" + id + (approve ? "/approve" : "/reject"), token, null);
+                api.get("GET /api/admin/summary", "/api/admin/summary", token);
+            }
+            think();
+        }
+    }
+
+    private void donorVisit() {
+        long donorId = loadDonorDashboard();
+        if (donorId < 0) {
+            return;
+        }
+        double action = random().nextDouble();
+        if (action < options.createProbability()) {
+            think();
+            api.post("POST /api/donations", "/api/donations", token, Map.of(
+                    "disease", "Nothing",
+                    "age", 20 + random().nextInt(40),
+                    "bloodGroup", randomBloodGroup(),
+                    "unit", 1 + random().nextInt(2),
+                    "donor", Map.of("id", donorId)));
+            loadDonorDashboard();
+        } else if (action < options.createProbability() * 1.25) {
+            think();
+            api.post("POST /api/requests", "/api/requests", token, request("donor", donorId));
+            loadDonorDashboard();
+        }
+    }
+
+    private void patientVisit() {
+        long patientId = loadPatientDashboard();
+        if (patientId < 0) {
+            return;
+        }
+        if (random().nextDouble() < options.createProbability()) {
+            think();
+            api.post("POST /api/requests", "/api/requests", token, request("patient", patientId));
+            loadPatientDashboard();
+        }
+    }
+
+    private long loadDonorDashboard() {
+        JsonNode donor = api.get("GET /api/donors/user/{userId}", "/api/donors/user/" + userId, token).json();
+        if (!donor.hasNonNull("id")) {
+            return -1;
+        }
+        api.get("GET /api/donations/donor/{userId}", "/api/donations/donor/" + userId, token);
+        api.get("GET /api/requests/donor/{userId}", "/api/requests/donor/" + userId, token);
+        return donor.get("id").asLong();
+    }
+
+    private long loadPatientDashboard() {
+        JsonNode patient = api.get("GET /api/patients/user/{userId}", "/api/patients/user/" + userId, token).json();
+        if (!patient.hasNonNull("id")) {
+            return -1;
+        }
+        api.get("GET /api/requests/patient/{userId}", "/api/requests/patient/" + userId, token);
+        return patient.get("id").asLong();
+    }
+
+    private Map<String, Object> request(String owner, long ownerId) {
+        return Map.of(
+                "patientName", "Load Test",
+                "patientAge", 20 + random().nextInt(60),
+                "reason", "Scheduled surgery",
+                "bloodGroup", randomBloodGroup(),
+                "unit", 1 + random().nextInt(2),
+                owner, Map.of("id", ownerId));
+    }
+
+    private static List<Long> ids(JsonNode items) {
+        List<Long> ids = new ArrayList<>();
+        items.forEach(item -> ids.add(item.path("id").asLong()));
+        return ids;
+    }
+
+    private static String randomBloodGroup() {
+        return BLOOD_GROUPS[random().nextInt(BLOOD_GROUPS.length)];
+    }
+
+    private void think() {
+        if (options.thinkMs() > 0) {
+            pause((long) (-options.thinkMs() * Math.log(1 - random().nextDouble())));
+        }
+    }
+
+    private void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopped.set(true);
+        }
+    }
+
+    private static ThreadLocalRandom random() {
+        return ThreadLocalRandom.current();
+    }
+}
@@ -0,0 +1,64 @@
+#!/usr/bin/env bash
+# Builds the standard and the fast-start backend images and reports time-to-first-request for each:
+# the wall time from `docker run` until the API answers, and the in-JVM figure the backend logs.
+#
+# Usage: backend/benchmarks/startup-report.sh [runs]    (run from the repository root)
+set -euo pipefail
+
+RUNS=${1:-5}
+NETWORK=bloodbank-startup
+DB=bloodbank-startup-mysql
+APP=bloodbank-startup-backend
+PORT=${STARTUP_PORT:-18080}
+DB_URL="jdbc:mysql://$DB:3306/bloodbank?createDatabaseIfNotExist=true&useSSL=false&serverTimezone=UTC&allowPublicKeyRetrieval=true"
+
+cleanup() {
+    docker rm -f "$APP" "$DB" >/dev/null 2>&1 || true
+    docker network rm "$NETWORK" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+now_ms() {
+    date +%s%3N
+}
+
+docker build -q -t blood-bank-backend:standard backend >/dev/null
+docker build -q -t blood-bank-backend:fast-start -f backend/Dockerfile.fast-start backend >/dev/null
+
+docker network create "$NETWORK" >/dev/null
+docker run -d --name "$DB" --network "$NETWORK" \
+    -e MYSQL_ROOT_PASSWORD=root -e MYSQL_DATABASE=bloodbank mysql:8.0 >/dev/null
+until docker exec "$DB" mysqladmin ping -h localhost -proot --silent >/dev/null 2>&1; do
+    sleep 1
+done
+
+# Starts the image and waits for the sign-in endpoint to answer (401 for an unknown user).
+# Prints "<wall ms> <in-JVM ms>".
+measure() {
+    local image=$1 start code=000
+    start=$(now_ms)
+    docker run -d --name "$APP" --network "$NETWORK" -p "$PORT:8080" \
+        -e SPRING_DATASOURCE_URL="$DB_URL" -e SPRING_DATASOURCE_USERNAME=root \
+        -e SPRING_DATASOURCE_PASSWORD=root "$image" >/dev/null
+    while [ "$code" = "000" ]; do
+        sleep 0.05
+        code=$(curl -s -o /dev/null -w '%{http_code}' -X POST "http://localhost:$PORT/api/auth/signin" \
+            -H 'Content-Type: application/json' -d '{"username":"startup-probe","password":"startup-probe"}' || true)
+    done
+    local wall=$(( $(now_ms) - start ))
+    sleep 1
+    local jvm
+    jvm=$(docker logs "$APP" 2>&1 | sed -n 's/.*served \([0-9]*\) ms after JVM start.*/\1/p' | head -1)
+    docker rm -f "$APP" >/dev/null
+    echo "$wall ${jvm:--}"
+}
+
+printf '%-12s %5s %10s %10s\n' image run wall_ms jvm_ms
+for variant in standard fast-start; do
+    # Unrecorded first start: applies the migrations and seeds the reference data.
+    measure "blood-bank-backend:$variant" >/dev/null
+    for run in $(seq 1 "$RUNS"); do
+        read -r wall jvm < <(measure "blood-bank-backend:$variant")
+        printf '%-12s %5s %10s %10s\n' "$variant" "$run" "$wall" "$jvm"
+    done
+done
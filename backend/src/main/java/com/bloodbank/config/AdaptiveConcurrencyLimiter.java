@@ -0,0 +1,164 @@
+package com.bloodbank.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit that adapts to observed latency, in the spirit of TCP congestion control.
+ * <p>
+ * The signal is the execution time of individual SQL statements, reported through
+ * {@link #sample(long)}, not how long a connection is held: that includes application work and
+ * long streaming exports, which say nothing about whether the database is queueing. The limit
+ * grows by one while the limiter is saturated and statement latency stays near its long-term
+ * average, and shrinks multiplicatively once the short-term average exceeds the long-term one by
+ * {@code tolerance}. Comparing two averages of the same mixed workload, rather than the average
+ * against the fastest statement ever seen, keeps a steady mix of cheap and expensive queries from
+ * reading as congestion. Callers that cannot get a permit wait up to {@code maxWaitMs}; beyond
+ * {@code maxWaiters} they are rejected straight away. A {@link ReentrantLock} is used rather than
+ * {@code synchronized} so that waiting virtual threads do not pin their carrier.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final double SHORT_SMOOTHING = 0.1;
+    private static final double LONG_SMOOTHING = 0.01;
+    private static final double OUTLIER_FACTOR = 10.0;
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long maxWaitNanos;
+    private final int maxWaiters;
+    private final double tolerance;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final LongAdder rejected = new LongAdder();
+
+    private int limit;
+    private int inFlight;
+    private int waiting;
+    private int samplesSinceAdjustment;
+    private double shortTermNanos;
+    private double longTermNanos;
+
+    public AdaptiveConcurrencyLimiter(int minLimit, int maxLimit, long maxWaitMs, int maxWaiters, double tolerance) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.maxWaiters = maxWaiters;
+        this.tolerance = tolerance;
+        this.limit = this.maxLimit;
+    }
+
+    public boolean acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < limit) {
+                inFlight++;
+                return true;
+            }
+            if (waiting >= maxWaiters) {
+                rejected.increment();
+                return false;
+            }
+            waiting++;
+            try {
+                long remaining = maxWaitNanos;
+                while (inFlight >= limit) {
+                    if (remaining <= 0) {
+                        rejected.increment();
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reports the execution time of one statement run on a connection held through this limiter.
+     */
+    public void sample(long statementNanos) {
+        lock.lock();
+        try {
+            int previous = limit;
+            adjust(statementNanos, inFlight >= limit);
+            if (limit > previous) {
+                released.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjust(long sampleNanos, boolean saturated) {
+        if (longTermNanos == 0) {
+            shortTermNanos = sampleNanos;
+            longTermNanos = sampleNanos;
+            return;
+        }
+        // Cap a single report or batch query so it cannot look like the database queueing.
+        double sample = Math.min(sampleNanos, longTermNanos * OUTLIER_FACTOR);
+        shortTermNanos += SHORT_SMOOTHING * (sample - shortTermNanos);
+        longTermNanos += LONG_SMOOTHING * (sample - longTermNanos);
+
+        // Adjust at most once per window of `limit` samples so one slow burst cannot collapse the limit.
+        if (++samplesSinceAdjustment < limit) {
+            return;
+        }
+        samplesSinceAdjustment = 0;
+        if (shortTermNanos > longTermNanos * tolerance) {
+            limit = Math.max(minLimit, (int) (limit * DECREASE_FACTOR));
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,238 @@
+package com.bloodbank.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps the connection pool so that a connection can only be borrowed with a permit from an
+ * {@link AdaptiveConcurrencyLimiter}. The permit is returned when the connection is closed, and
+ * the execution time of every statement run on it is reported to the limiter as its latency signal.
+ * <p>
+ * Streaming exports hold their connection for as long as the download takes, which can be an hour.
+ * Work run through {@link #streaming(StreamingWork)} therefore takes its connection from a separate,
+ * fixed number of permits instead: exports neither starve requests of the adaptive limit nor feed
+ * it their latency.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+    private static final Logger logger = LoggerFactory.getLogger(BulkheadDataSource.class);
+
+    private static final ThreadLocal<Boolean> STREAMING = new ThreadLocal<>();
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final int streamingLimit;
+    private final Semaphore streamingPermits;
+    private final long streamingMaxWaitMs;
+
+    public BulkheadDataSource(DataSource target, AdaptiveConcurrencyLimiter limiter, int streamingLimit,
+                              long streamingMaxWaitMs) {
+        super(target);
+        this.limiter = limiter;
+        this.streamingLimit = streamingLimit;
+        this.streamingPermits = new Semaphore(streamingLimit);
+        this.streamingMaxWaitMs = streamingMaxWaitMs;
+    }
+
+    /**
+     * Runs work that streams a long result on this thread, so that the connections it borrows are
+     * counted against the streaming permits. Has no effect when the bulkhead is disabled.
+     */
+    public static <T, E extends Exception> T streaming(StreamingWork<T, E> work) throws E {
+        Boolean outer = STREAMING.get();
+        STREAMING.set(Boolean.TRUE);
+        try {
+            return work.run();
+        } finally {
+            if (outer == null) {
+                STREAMING.remove();
+            }
+        }
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter() {
+        return limiter;
+    }
+
+    public int getStreamingInFlight() {
+        return streamingLimit - streamingPermits.availablePermits();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        boolean streaming = acquire();
+        return guard(() -> super.getConnection(), streaming);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        boolean streaming = acquire();
+        return guard(() -> super.getConnection(username, password), streaming);
+    }
+
+    private boolean acquire() throws SQLException {
+        if (STREAMING.get() != null) {
+            acquireStreaming();
+            return true;
+        }
+        acquireAdaptive();
+        return false;
+    }
+
+    private void acquireStreaming() throws SQLException {
+        try {
+            if (!streamingPermits.tryAcquire(streamingMaxWaitMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("Database bulkhead rejected a streaming export connection");
+                throw new SQLTransientConnectionException("Too many streaming exports are running");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a streaming export permit", e);
+        }
+    }
+
+    private void release(boolean streaming) {
+        if (streaming) {
+            streamingPermits.release();
+        } else {
+            limiter.release();
+        }
+    }
+
+    private void acquireAdaptive() throws SQLException {
+        try {
+            if (!limiter.acquire()) {
+                logger.warn("Database bulkhead rejected a connection request (limit {}, waiting {})",
+                        limiter.getLimit(), limiter.getWaiting());
+                throw new SQLTransientConnectionException("Database bulkhead is saturated");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for the database bulkhead", e);
+        }
+    }
+
+    private Connection guard(ConnectionSupplier supplier, boolean streaming) throws SQLException {
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            release(streaming);
+            throw e;
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new ReleasingHandler(connection, streaming));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    public interface StreamingWork<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private final class ReleasingHandler implements InvocationHandler {
+        private final Connection target;
+        private final boolean streaming;
+        private boolean closed;
+
+        private ReleasingHandler(Connection target, boolean streaming) {
+            this.target = target;
+            this.streaming = streaming;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (closed) {
+                        return null;
+                    }
+                    closed = true;
+                    try {
+                        return BulkheadDataSource.invoke(target, method, args);
+                    } finally {
+                        release(streaming);
+                    }
+                case "isClosed":
+                    return closed || target.isClosed();
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : target.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy) || target.isWrapperFor((Class<?>) args[0]);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "createStatement":
+                case "prepareStatement":
+                case "prepareCall":
+                    Statement statement = (Statement) BulkheadDataSource.invoke(target, method, args);
+                    if (streaming) {
+                        return statement;
+                    }
+                    return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{method.getReturnType()},
+                            new TimingHandler(statement, proxy));
+                default:
+                    return BulkheadDataSource.invoke(target, method, args);
+            }
+        }
+    }
+
+    private final class TimingHandler implements InvocationHandler {
+        private final Statement target;
+        private final Object connection;
+
+        private TimingHandler(Statement target, Object connection) {
+            this.target = target;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    return BulkheadDataSource.invoke(target, method, args);
+                } finally {
+                    limiter.sample(System.nanoTime() - start);
+                }
+            }
+            switch (name) {
+                case "getConnection":
+                    return connection;
+                case "unwrap":
+                    return ((Class<?>) args[0]).isInstance(proxy) ? proxy : target.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy) || target.isWrapperFor((Class<?>) args[0]);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return BulkheadDataSource.invoke(target, method, args);
+            }
+        }
+    }
+}
@@ -1,43 +1,38 @@
 package com.bloodbank.config;
 
 import com.bloodbank.model.Role;
-import com.bloodbank.repository.RoleRepository;
 import com.bloodbank.service.StockService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Seeds the roles and blood groups with one insert-if-missing statement per table, so a restart
+ * costs two round trips however much reference data already exists.
+ */
 @Component
 public class DataInitializer implements CommandLineRunner {
     @Autowired
-    private RoleRepository roleRepository;
+    private NamedParameterJdbcTemplate jdbcTemplate;
 
     @Autowired
     private StockService stockService;
 
     @Override
+    @Transactional
     public void run(String... args) throws Exception {
-        // Initialize roles
-        if (roleRepository.findByName(Role.ERole.ROLE_ADMIN).isEmpty()) {
-            Role adminRole = new Role();
-            adminRole.setName(Role.ERole.ROLE_ADMIN);
-            roleRepository.save(adminRole);
-        }
-
-        if (roleRepository.findByName(Role.ERole.ROLE_DONOR).isEmpty()) {
-            Role donorRole = new Role();
-            donorRole.setName(Role.ERole.ROLE_DONOR);
-            roleRepository.save(donorRole);
-        }
+        List<Object[]> roles = Arrays.stream(Role.ERole.values())
+                .map(role -> new Object[]{role.name()})
+                .toList();
+        jdbcTemplate.update("INSERT INTO roles (name) VALUES :roles ON DUPLICATE KEY UPDATE name = name",
+                Map.of("roles", roles));
 
-        if (roleRepository.findByName(Role.ERole.ROLE_PATIENT).isEmpty()) {
-            Role patientRole = new Role();
-            patientRole.setName(Role.ERole.ROLE_PATIENT);
-            roleRepository.save(patientRole);
-        }
-
-        // Initialize blood groups
         stockService.initializeBloodGroups();
     }
 }
-
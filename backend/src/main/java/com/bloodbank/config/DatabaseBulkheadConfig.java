@@ -0,0 +1,97 @@
+package com.bloodbank.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Puts the application's {@link DataSource} behind a {@link BulkheadDataSource} when
+ * {@code db.bulkhead.enabled} is set. Meant for the virtual-thread mode, where request concurrency
+ * is no longer capped by the servlet thread pool and thousands of callers could otherwise pile up
+ * on the connection pool.
+ * <p>
+ * Streaming exports ({@link com.bloodbank.service.ExportService}) hold a connection for the whole
+ * download, so they get their own {@code db.bulkhead.streaming-limit} permits rather than sharing
+ * the adaptive limit with requests. The pool must be sized for both: up to
+ * {@code db.bulkhead.max-limit} request connections plus {@code db.bulkhead.streaming-limit}
+ * export connections.
+ */
+@Configuration
+@ImportRuntimeHints(JdbcProxyHints.class)
+@ConditionalOnProperty(name = "db.bulkhead.enabled", havingValue = "true")
+public class DatabaseBulkheadConfig {
+
+    /**
+     * Wrapping order of the bulkhead. It runs before {@link SqlTracingConfig}'s wrapper, so the
+     * bulkhead sits next to the pool and tracing sees the connections it hands out.
+     */
+    public static final int WRAP_ORDER = 0;
+
+    @Bean
+    public static BeanPostProcessor databaseBulkheadPostProcessor(Environment environment) {
+        return new BulkheadPostProcessor(environment);
+    }
+
+    @Bean
+    public MeterBinder databaseBulkheadMetrics(DataSource dataSource) {
+        return registry -> {
+            BulkheadDataSource bulkhead = DataSourceUnwrapper.unwrap(dataSource, BulkheadDataSource.class);
+            if (bulkhead != null) {
+                AdaptiveConcurrencyLimiter limiter = bulkhead.getLimiter();
+                Gauge.builder("bloodbank.db.bulkhead.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                        .description("Current concurrency limit of the database bulkhead")
+                        .register(registry);
+                Gauge.builder("bloodbank.db.bulkhead.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                        .description("Connections currently held through the database bulkhead")
+                        .register(registry);
+                Gauge.builder("bloodbank.db.bulkhead.waiting", limiter, AdaptiveConcurrencyLimiter::getWaiting)
+                        .description("Callers waiting for a database bulkhead permit")
+                        .register(registry);
+                Gauge.builder("bloodbank.db.bulkhead.streaming-in-flight", bulkhead, BulkheadDataSource::getStreamingInFlight)
+                        .description("Connections currently held by streaming exports")
+                        .register(registry);
+                FunctionCounter.builder("bloodbank.db.bulkhead.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                        .description("Connection requests rejected by the database bulkhead")
+                        .register(registry);
+            }
+        };
+    }
+
+    static class BulkheadPostProcessor implements BeanPostProcessor, Ordered {
+        private final Environment environment;
+
+        BulkheadPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof BulkheadDataSource)) {
+                return new BulkheadDataSource(dataSource, new AdaptiveConcurrencyLimiter(
+                        environment.getProperty("db.bulkhead.min-limit", Integer.class, 2),
+                        environment.getProperty("db.bulkhead.max-limit", Integer.class, 8),
+                        environment.getProperty("db.bulkhead.max-wait-ms", Long.class, 2000L),
+                        environment.getProperty("db.bulkhead.max-waiters", Integer.class, 1000),
+                        environment.getProperty("db.bulkhead.latency-tolerance", Double.class, 2.0)),
+                        environment.getProperty("db.bulkhead.streaming-limit", Integer.class, 2),
+                        environment.getProperty("db.bulkhead.max-wait-ms", Long.class, 2000L));
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return WRAP_ORDER;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.bloodbank.config;
+
+import com.bloodbank.service.IdempotencyService;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Buffers the body of requests that carry an {@code Idempotency-Key} and records its SHA-256 hash
+ * as a request attribute, so that {@link IdempotencyService} can tell a retry from a different
+ * request sent under the same key.
+ */
+@ControllerAdvice
+public class IdempotencyBodyAdvice extends RequestBodyAdviceAdapter {
+
+    @Override
+    public boolean supports(MethodParameter methodParameter, Type targetType,
+                            Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+                                           Class<? extends HttpMessageConverter<?>> converterType) throws IOException {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null || !inputMessage.getHeaders().containsKey(IdempotencyService.HEADER)) {
+            return inputMessage;
+        }
+        byte[] body = inputMessage.getBody().readAllBytes();
+        try {
+            attributes.setAttribute(IdempotencyService.BODY_HASH_ATTRIBUTE,
+                    MessageDigest.getInstance("SHA-256").digest(body), RequestAttributes.SCOPE_REQUEST);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        return new HttpInputMessage() {
+            @Override
+            public InputStream getBody() {
+                return new ByteArrayInputStream(body);
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return inputMessage.getHeaders();
+            }
+        };
+    }
+}
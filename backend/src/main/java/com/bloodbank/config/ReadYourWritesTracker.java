@@ -0,0 +1,62 @@
+package com.bloodbank.config;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Remembers which users wrote recently, so their reads can be kept on the primary until the
+ * replicas have had time to catch up with their own changes.
+ * <p>
+ * At most {@code maxEntries} users are remembered. Past that the users who first wrote longest ago
+ * are forgotten, and their reads may go to a replica again before their window is over.
+ */
+public class ReadYourWritesTracker {
+    private final long windowNanos;
+    private final int maxEntries;
+    private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    // Remembered users in the order they were added, for eviction. Only touched when a write is recorded.
+    private final Deque<Long> insertionOrder = new ArrayDeque<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public ReadYourWritesTracker(long windowMs, int maxEntries) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxEntries = maxEntries;
+    }
+
+    public void recordWrite(Long userId) {
+        if (userId == null || windowNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        evictionLock.lock();
+        try {
+            if (stickyUntil.put(userId, now + windowNanos) == null) {
+                insertionOrder.addLast(userId);
+            }
+            while (!insertionOrder.isEmpty()) {
+                Long oldest = insertionOrder.peekFirst();
+                if (insertionOrder.size() <= maxEntries && stickyUntil.get(oldest) - now > 0) {
+                    break;
+                }
+                insertionOrder.pollFirst();
+                stickyUntil.remove(oldest);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // An expired entry is left for recordWrite to drop, so the map and its eviction order stay in step.
+    public boolean isSticky(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(userId);
+        return until != null && until - System.nanoTime() > 0;
+    }
+}
@@ -0,0 +1,152 @@
+package com.bloodbank.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Spreads read-only service transactions over the replicas listed in {@code db.replica.urls} when
+ * {@code db.replica.enabled} is set. Replicas share the primary's driver and, unless overridden,
+ * its credentials, so adding read capacity is a matter of appending a URL.
+ * <p>
+ * Any request that may write (anything but GET, HEAD and OPTIONS) keeps its user on the primary for
+ * {@code db.replica.sticky-window-ms}, both while it runs and after it completes, so users always
+ * read their own changes.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfig implements WebMvcConfigurer {
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final String WRITER_ATTRIBUTE = ReplicaRoutingConfig.class.getName() + ".writer";
+
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Bean
+    public static ReadYourWritesTracker readYourWritesTracker(Environment environment) {
+        return new ReadYourWritesTracker(
+                environment.getProperty("db.replica.sticky-window-ms", Long.class, 5000L),
+                environment.getProperty("db.replica.sticky-max-entries", Integer.class, 100000));
+    }
+
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(Environment environment,
+                                                                          ReadYourWritesTracker readYourWritesTracker) {
+        return new ReplicaRoutingPostProcessor(environment, readYourWritesTracker);
+    }
+
+    @Bean
+    public MeterBinder replicaPoolMetrics(ReplicaRoutingPostProcessor replicaRoutingPostProcessor) {
+        return registry -> {
+            for (HikariDataSource replica : replicaRoutingPostProcessor.replicas) {
+                if (replica.getMetricRegistry() == null && !replica.isRunning()) {
+                    replica.setMetricRegistry(registry);
+                }
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                if (!SAFE_METHODS.contains(request.getMethod())) {
+                    Long userId = ReplicaRoutingDataSource.currentUserId();
+                    if (userId != null) {
+                        request.setAttribute(WRITER_ATTRIBUTE, userId);
+                        readYourWritesTracker.recordWrite(userId);
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                        Exception ex) {
+                if (request.getAttribute(WRITER_ATTRIBUTE) instanceof Long userId) {
+                    readYourWritesTracker.recordWrite(userId);
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs before the other DataSource wrappers, so tracing and the bulkhead see replica
+     * connections as well.
+     */
+    static class ReplicaRoutingPostProcessor implements BeanPostProcessor, PriorityOrdered, DisposableBean {
+        private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingPostProcessor.class);
+
+        private final Environment environment;
+        private final ReadYourWritesTracker readYourWrites;
+        private final List<HikariDataSource> replicas = new ArrayList<>();
+
+        ReplicaRoutingPostProcessor(Environment environment, ReadYourWritesTracker readYourWrites) {
+            this.environment = environment;
+            this.readYourWrites = readYourWrites;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource primary) || bean instanceof LazyConnectionDataSourceProxy) {
+                return bean;
+            }
+            String[] urls = StringUtils.commaDelimitedListToStringArray(environment.getProperty("db.replica.urls", ""));
+            for (String url : urls) {
+                if (StringUtils.hasText(url)) {
+                    replicas.add(createReplica(url.trim(), replicas.size()));
+                }
+            }
+            logger.info("Routing read-only transactions to {} replica(s)", replicas.size());
+            return new LazyConnectionDataSourceProxy(
+                    new ReplicaRoutingDataSource(primary, new ArrayList<>(replicas), readYourWrites));
+        }
+
+        private HikariDataSource createReplica(String url, int index) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + index);
+            replica.setJdbcUrl(url);
+            replica.setDriverClassName(environment.getProperty("spring.datasource.driver-class-name"));
+            replica.setUsername(environment.getProperty("db.replica.username",
+                    environment.getProperty("spring.datasource.username")));
+            replica.setPassword(environment.getProperty("db.replica.password",
+                    environment.getProperty("spring.datasource.password")));
+            replica.setMaximumPoolSize(environment.getProperty("db.replica.pool-size", Integer.class, 10));
+            replica.setReadOnly(true);
+            return replica;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void destroy() {
+            replicas.forEach(HikariDataSource::close);
+        }
+    }
+}
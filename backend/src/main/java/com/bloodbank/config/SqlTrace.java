@@ -0,0 +1,102 @@
+package com.bloodbank.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL activity of the request being handled on the current thread. Every request counts its
+ * statements; only sampled requests also keep the individual statements for the trace log.
+ */
+public final class SqlTrace {
+    private static final ThreadLocal<SqlTrace> CURRENT = new ThreadLocal<>();
+
+    private final boolean sampled;
+    private final List<Statement> statements = new ArrayList<>();
+    private String handler;
+    private int statementCount;
+    private long totalNanos;
+
+    private SqlTrace(boolean sampled) {
+        this.sampled = sampled;
+    }
+
+    static SqlTrace begin(boolean sampled) {
+        SqlTrace trace = new SqlTrace(sampled);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static SqlTrace current() {
+        return CURRENT.get();
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    void setHandler(String handler) {
+        this.handler = handler;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public List<Statement> getStatements() {
+        return statements;
+    }
+
+    Statement record(String sql, long nanos, long rows) {
+        statementCount++;
+        totalNanos += nanos;
+        if (!sampled) {
+            return null;
+        }
+        Statement statement = new Statement(sql, nanos, rows);
+        statements.add(statement);
+        return statement;
+    }
+
+    public static final class Statement {
+        private final String sql;
+        private final long nanos;
+        private long rows;
+
+        private Statement(String sql, long nanos, long rows) {
+            this.sql = sql;
+            this.nanos = nanos;
+            this.rows = rows;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * Rows updated, or for queries the rows read so far; -1 when not known.
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        void addRows(long count) {
+            rows = rows < 0 ? count : rows + count;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.bloodbank.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces {@code spring.jpa.show-sql} with sampled per-request tracing: the {@link DataSource} is
+ * wrapped in a {@link SqlTracingDataSource}, {@link SqlTracingFilter} opens a trace per request and
+ * an interceptor names the controller method that handled it.
+ */
+@Configuration
+@ImportRuntimeHints(JdbcProxyHints.class)
+@ConditionalOnProperty(name = "sql.tracing.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTracingConfig implements WebMvcConfigurer {
+
+    /**
+     * Wrapping order of the tracing wrapper: after the bulkhead, so it is the outermost wrapper and
+     * every statement is timed on the connection the application actually uses.
+     */
+    public static final int WRAP_ORDER = DatabaseBulkheadConfig.WRAP_ORDER + 1;
+
+    @Bean
+    public static BeanPostProcessor sqlTracingPostProcessor(Environment environment) {
+        return new SqlTracingPostProcessor(environment);
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlTracingFilter> sqlTracingFilter(Environment environment, ObjectMapper objectMapper) {
+        FilterRegistrationBean<SqlTracingFilter> registration = new FilterRegistrationBean<>(new SqlTracingFilter(
+                environment.getProperty("sql.tracing.sample-rate", Double.class, 0.01), objectMapper));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                SqlTrace trace = SqlTrace.current();
+                if (trace != null && handler instanceof HandlerMethod method) {
+                    trace.setHandler(method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+                }
+                return true;
+            }
+        });
+    }
+
+    static class SqlTracingPostProcessor implements BeanPostProcessor, Ordered {
+        private final Environment environment;
+
+        SqlTracingPostProcessor(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof SqlTracingDataSource)) {
+                return new SqlTracingDataSource(dataSource,
+                        environment.getProperty("sql.tracing.slow-threshold-ms", Long.class, 200L));
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return WRAP_ORDER;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.bloodbank.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every statement executed through the wrapped pool. Each statement is counted against the
+ * current {@link SqlTrace}; sampled requests also keep its text, duration and row count, and any
+ * statement slower than the threshold is logged whether its request is sampled or not.
+ * <p>
+ * Rows read by a query are only counted for sampled requests, because that needs the result set
+ * to be wrapped as well.
+ */
+public class SqlTracingDataSource extends DelegatingDataSource {
+    private static final Logger logger = LoggerFactory.getLogger(SqlTracingDataSource.class);
+
+    private final long slowThresholdNanos;
+
+    public SqlTracingDataSource(DataSource target, long slowThresholdMs) {
+        super(target);
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Connection connection = super.getConnection();
+        return wrap(connection, Connection.class, new ConnectionHandler(connection));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Connection connection = super.getConnection(username, password);
+        return wrap(connection, Connection.class, new ConnectionHandler(connection));
+    }
+
+    private static <T> T wrap(Object target, Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(SqlTracingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static Object unwrapOrDelegate(Object proxy, Object target, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "unwrap":
+                return ((Class<?>) args[0]).isInstance(proxy) ? proxy : invoke(target, method, args);
+            case "isWrapperFor":
+                return ((Class<?>) args[0]).isInstance(proxy) || (Boolean) invoke(target, method, args);
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return invoke(target, method, args);
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        private ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "createStatement":
+                    Statement plain = (Statement) SqlTracingDataSource.invoke(target, method, args);
+                    return wrap(plain, Statement.class, new StatementHandler(plain, null));
+                case "prepareStatement":
+                case "prepareCall":
+                    Statement statement = (Statement) SqlTracingDataSource.invoke(target, method, args);
+                    Class<? extends Statement> type = statement instanceof CallableStatement
+                            ? CallableStatement.class : PreparedStatement.class;
+                    return wrap(statement, type, new StatementHandler(statement, (String) args[0]));
+                default:
+                    return unwrapOrDelegate(proxy, target, method, args);
+            }
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String sql;
+        private SqlTrace.Statement lastEntry;
+
+        private StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getName().equals("getResultSet")) {
+                return traced(SqlTracingDataSource.invoke(target, method, args), lastEntry);
+            }
+            if (!method.getName().startsWith("execute")) {
+                return unwrapOrDelegate(proxy, target, method, args);
+            }
+            String text = args != null && args.length > 0 && args[0] instanceof String given ? given : sql;
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = SqlTracingDataSource.invoke(target, method, args);
+            } catch (Throwable e) {
+                record(text, System.nanoTime() - start, -1);
+                throw e;
+            }
+            // Rows read by a query are added to its entry as the caller consumes the result set.
+            lastEntry = record(text, System.nanoTime() - start, rows(result));
+            return traced(result, lastEntry);
+        }
+
+        private SqlTrace.Statement record(String text, long elapsed, long rows) {
+            SqlTrace trace = SqlTrace.current();
+            SqlTrace.Statement entry = trace == null ? null : trace.record(text, elapsed, rows);
+            if (elapsed >= slowThresholdNanos) {
+                logger.warn("Slow SQL statement ({} ms) in {}: {}", TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        trace != null && trace.getHandler() != null ? trace.getHandler()
+                                : Thread.currentThread().getName(), text);
+            }
+            return entry;
+        }
+
+        private Object traced(Object result, SqlTrace.Statement entry) {
+            if (result instanceof ResultSet resultSet && entry != null) {
+                return wrap(resultSet, ResultSet.class, new ResultSetHandler(resultSet, entry));
+            }
+            return result;
+        }
+
+        private long rows(Object result) {
+            if (result instanceof ResultSet) {
+                return 0;
+            }
+            if (result instanceof Number count) {
+                return count.longValue();
+            }
+            if (result instanceof int[] counts) {
+                long total = 0;
+                for (int count : counts) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            if (result instanceof long[] counts) {
+                long total = 0;
+                for (long count : counts) {
+                    total += Math.max(count, 0);
+                }
+                return total;
+            }
+            return -1;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final SqlTrace.Statement entry;
+
+        private ResultSetHandler(ResultSet target, SqlTrace.Statement entry) {
+            this.target = target;
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = unwrapOrDelegate(proxy, target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                entry.addRows(1);
+            }
+            return result;
+        }
+    }
+}
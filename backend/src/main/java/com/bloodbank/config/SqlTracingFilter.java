@@ -0,0 +1,73 @@
+package com.bloodbank.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Opens a {@link SqlTrace} for each request and, for the sampled fraction, logs its statements as
+ * one JSON line on the {@code com.bloodbank.sql} logger.
+ */
+public class SqlTracingFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(SqlTracingFilter.class);
+    private static final Logger traceLogger = LoggerFactory.getLogger("com.bloodbank.sql");
+
+    private final double sampleRate;
+    private final ObjectMapper objectMapper;
+
+    public SqlTracingFilter(double sampleRate, ObjectMapper objectMapper) {
+        this.sampleRate = sampleRate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+        SqlTrace trace = SqlTrace.begin(sampled);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlTrace.end();
+            if (sampled && traceLogger.isInfoEnabled()) {
+                log(request, response, trace);
+            }
+        }
+    }
+
+    private void log(HttpServletRequest request, HttpServletResponse response, SqlTrace trace) {
+        List<Map<String, Object>> statements = new ArrayList<>();
+        for (SqlTrace.Statement statement : trace.getStatements()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("sql", statement.getSql());
+            entry.put("ms", statement.getNanos() / 1_000_000.0);
+            entry.put("rows", statement.getRows());
+            statements.add(entry);
+        }
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("method", request.getMethod());
+        line.put("uri", request.getRequestURI());
+        line.put("status", response.getStatus());
+        line.put("handler", trace.getHandler());
+        line.put("statementCount", trace.getStatementCount());
+        line.put("totalMs", trace.getTotalNanos() / 1_000_000.0);
+        line.put("statements", statements);
+        try {
+            traceLogger.info(objectMapper.writeValueAsString(line));
+        } catch (IOException e) {
+            logger.warn("Could not write SQL trace for {}: {}", request.getRequestURI(), e.getMessage());
+        }
+    }
+}
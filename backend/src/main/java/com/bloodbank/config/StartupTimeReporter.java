@@ -0,0 +1,46 @@
+package com.bloodbank.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measures time-to-first-request: from JVM start to the first API request served, ignoring health
+ * probes and metric scrapes. Logged once and published as {@code bloodbank.startup.first-request}.
+ */
+@Component
+public class StartupTimeReporter implements MeterBinder {
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeReporter.class);
+
+    private volatile long firstRequestMs = -1;
+
+    @EventListener
+    public void onRequestHandled(ServletRequestHandledEvent event) {
+        if (firstRequestMs >= 0 || event.getRequestUrl().startsWith("/actuator")) {
+            return;
+        }
+        synchronized (this) {
+            if (firstRequestMs < 0) {
+                firstRequestMs = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+                logger.info("First request ({} {}) served {} ms after JVM start", event.getMethod(),
+                        event.getRequestUrl(), firstRequestMs);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("bloodbank.startup.first-request", this,
+                        reporter -> reporter.firstRequestMs < 0 ? Double.NaN : reporter.firstRequestMs / 1000.0)
+                .description("Time from JVM start to the first API request served")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+}
@@ -0,0 +1,98 @@
+package com.bloodbank.controller;
+
+import com.bloodbank.dto.AdminSummary;
+import com.bloodbank.dto.RuntimeStatus;
+import com.bloodbank.security.services.TokenVersionService;
+import com.bloodbank.service.AdminSummaryService;
+import com.bloodbank.service.BulkImportService;
+import com.bloodbank.service.RuntimeStatusService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+    @Autowired
+    private AdminSummaryService adminSummaryService;
+
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private TokenVersionService tokenVersionService;
+
+    @Autowired
+    private RuntimeStatusService runtimeStatusService;
+
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<AdminSummary> getSummary(@RequestParam(defaultValue = "20") int pendingLimit) {
+        return ResponseEntity.ok(adminSummaryService.getSummary(Math.max(1, Math.min(pendingLimit, 200))));
+    }
+
+    @GetMapping("/runtime")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RuntimeStatus> getRuntimeStatus() {
+        return ResponseEntity.ok(runtimeStatusService.getStatus());
+    }
+
+    @PostMapping(value = "/import/donors", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importDonors(@RequestParam("file") MultipartFile file) {
+        return importCsv(BulkImportService.Kind.DONOR, file);
+    }
+
+    @PostMapping(value = "/import/patients", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importPatients(@RequestParam("file") MultipartFile file) {
+        return importCsv(BulkImportService.Kind.PATIENT, file);
+    }
+
+    @PutMapping("/users/{id}/disable")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> disableUser(@PathVariable Long id) {
+        try {
+            tokenVersionService.setEnabled(id, false);
+            return ResponseEntity.ok("User disabled");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PutMapping("/users/{id}/enable")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> enableUser(@PathVariable Long id) {
+        try {
+            tokenVersionService.setEnabled(id, true);
+            return ResponseEntity.ok("User enabled");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PutMapping("/users/{id}/revoke-tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> revokeTokens(@PathVariable Long id) {
+        try {
+            tokenVersionService.revokeTokens(id);
+            return ResponseEntity.ok("Tokens revoked");
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private ResponseEntity<?> importCsv(BulkImportService.Kind kind, MultipartFile file) {
+        try {
+            return ResponseEntity.ok(bulkImportService.importCsv(kind, file.getInputStream()));
+        } catch (IOException | RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
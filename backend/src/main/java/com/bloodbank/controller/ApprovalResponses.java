@@ -0,0 +1,34 @@
+package com.bloodbank.controller;
+
+import com.bloodbank.service.DecisionConflictException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Turns failed approvals into responses. A {@link DecisionConflictException} is the answer for that
+ * item and is mapped inside the idempotent call, so a retry under the same key replays it. Any other
+ * failure (a full approval queue, a saturated database, exhausted retries) is left to fail the call,
+ * so the idempotency store forgets it and the client can retry; it is mapped outside the call.
+ */
+final class ApprovalResponses {
+    private ApprovalResponses() {
+    }
+
+    static ResponseEntity<?> declined(Throwable failure) {
+        Throwable cause = unwrap(failure);
+        if (cause instanceof DecisionConflictException) {
+            return ResponseEntity.badRequest().body(cause.getMessage());
+        }
+        throw failure instanceof CompletionException completion ? completion : new CompletionException(failure);
+    }
+
+    static ResponseEntity<?> unavailable(Throwable failure) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(unwrap(failure).getMessage());
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
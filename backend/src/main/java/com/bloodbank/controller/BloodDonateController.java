@@ -1,13 +1,25 @@
 package com.bloodbank.controller;
 
+import com.bloodbank.dto.BloodDonateResponse;
+import com.bloodbank.dto.BulkActionRequest;
+import com.bloodbank.dto.BulkActionResult;
 import com.bloodbank.model.BloodDonate;
+import com.bloodbank.model.BloodDonate.DonationStatus;
+import com.bloodbank.service.ApprovalPipeline;
 import com.bloodbank.service.BloodDonateService;
+import com.bloodbank.service.ExportService;
+import com.bloodbank.service.IdempotencyService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -16,34 +28,105 @@ public class BloodDonateController {
     @Autowired
     private BloodDonateService bloodDonateService;
 
+    @Autowired
+    private ApprovalPipeline approvalPipeline;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<BloodDonate>> getAllDonations() {
-        return ResponseEntity.ok(bloodDonateService.getAllDonations());
+    public ResponseEntity<List<BloodDonateResponse>> getAllDonations() {
+        return ResponseEntity.ok(toResponses(bloodDonateService.getAllDonations()));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportDonations(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = "csv".equalsIgnoreCase(format) ? ExportService.Format.CSV : ExportService.Format.NDJSON;
+        MediaType mediaType = exportFormat == ExportService.Format.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"donations." + exportFormat.name().toLowerCase() + "\"")
+                .body(out -> exportService.writeDonations(exportFormat, out));
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getDonationsPage(@RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "50") int limit,
+                                              @RequestParam(defaultValue = "id") String sort,
+                                              @RequestParam(defaultValue = "asc") String direction,
+                                              @RequestParam(required = false) DonationStatus status,
+                                              @RequestParam(required = false) String bloodGroup) {
+        try {
+            return ResponseEntity.ok(bloodDonateService.getDonationsPage(cursor, Math.max(1, Math.min(limit, 200)), sort,
+                    "desc".equalsIgnoreCase(direction), status, bloodGroup).map(BloodDonateResponse::from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/donor/{donorId}")
     @PreAuthorize("hasRole('DONOR') or hasRole('ADMIN')")
-    public ResponseEntity<List<BloodDonate>> getDonationsByDonorId(@PathVariable Long donorId) {
-        return ResponseEntity.ok(bloodDonateService.getDonationsByDonorId(donorId));
+    public ResponseEntity<List<BloodDonateResponse>> getDonationsByDonorId(@PathVariable Long donorId) {
+        return ResponseEntity.ok(toResponses(bloodDonateService.getDonationsByDonorId(donorId)));
     }
 
     @PostMapping
     @PreAuthorize("hasRole('DONOR')")
-    public ResponseEntity<BloodDonate> createDonation(@RequestBody BloodDonate donation) {
-        return ResponseEntity.ok(bloodDonateService.createDonation(donation));
+    public CompletableFuture<ResponseEntity<?>> createDonation(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody BloodDonate donation) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/donations",
+                () -> ResponseEntity.ok(BloodDonateResponse.from(bloodDonateService.createDonation(donation))));
+    }
+
+    @PutMapping("/bulk/approve")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CompletableFuture<ResponseEntity<?>> approveDonations(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody BulkActionRequest bulkRequest) {
+        return idempotencyService.execute(idempotencyKey, "PUT /api/donations/bulk/approve",
+                () -> ResponseEntity.ok(bloodDonateService.approveDonations(bulkRequest.getIds())));
+    }
+
+    @PutMapping("/bulk/reject")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<BulkActionResult>> rejectDonations(@Valid @RequestBody BulkActionRequest bulkRequest) {
+        return ResponseEntity.ok(bloodDonateService.rejectDonations(bulkRequest.getIds()));
     }
 
     @PutMapping("/{id}/approve")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BloodDonate> approveDonation(@PathVariable Long id) {
-        return ResponseEntity.ok(bloodDonateService.approveDonation(id));
+    public CompletableFuture<ResponseEntity<?>> approveDonation(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @PathVariable Long id) {
+        return idempotencyService.executeAsync(idempotencyKey, "PUT /api/donations/" + id + "/approve",
+                () -> approvalPipeline.approveDonation(id)
+                        .<ResponseEntity<?>>thenApply(donation -> ResponseEntity.ok(BloodDonateResponse.from(donation)))
+                        .exceptionally(ApprovalResponses::declined))
+                .exceptionally(ApprovalResponses::unavailable);
     }
 
     @PutMapping("/{id}/reject")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BloodDonate> rejectDonation(@PathVariable Long id) {
-        return ResponseEntity.ok(bloodDonateService.rejectDonation(id));
+    public ResponseEntity<?> rejectDonation(@PathVariable Long id) {
+        try {
+            return ResponseEntity.ok(BloodDonateResponse.from(bloodDonateService.rejectDonation(id)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private static List<BloodDonateResponse> toResponses(List<BloodDonate> donations) {
+        return donations.stream().map(BloodDonateResponse::from).toList();
     }
 }
 
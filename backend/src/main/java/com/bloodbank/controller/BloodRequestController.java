@@ -1,13 +1,25 @@
 package com.bloodbank.controller;
 
+import com.bloodbank.dto.BloodRequestResponse;
+import com.bloodbank.dto.BulkActionRequest;
+import com.bloodbank.dto.BulkActionResult;
 import com.bloodbank.model.BloodRequest;
+import com.bloodbank.model.BloodRequest.RequestStatus;
+import com.bloodbank.service.ApprovalPipeline;
 import com.bloodbank.service.BloodRequestService;
+import com.bloodbank.service.ExportService;
+import com.bloodbank.service.IdempotencyService;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
@@ -16,50 +28,118 @@ public class BloodRequestController {
     @Autowired
     private BloodRequestService bloodRequestService;
 
+    @Autowired
+    private ApprovalPipeline approvalPipeline;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<BloodRequest>> getAllRequests() {
-        return ResponseEntity.ok(bloodRequestService.getAllRequests());
+    public ResponseEntity<List<BloodRequestResponse>> getAllRequests() {
+        return ResponseEntity.ok(toResponses(bloodRequestService.getAllRequests()));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportRequests(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportService.Format exportFormat = "csv".equalsIgnoreCase(format) ? ExportService.Format.CSV : ExportService.Format.NDJSON;
+        MediaType mediaType = exportFormat == ExportService.Format.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"requests." + exportFormat.name().toLowerCase() + "\"")
+                .body(out -> exportService.writeRequests(exportFormat, out));
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getRequestsPage(@RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "50") int limit,
+                                             @RequestParam(defaultValue = "id") String sort,
+                                             @RequestParam(defaultValue = "asc") String direction,
+                                             @RequestParam(required = false) RequestStatus status,
+                                             @RequestParam(required = false) String bloodGroup) {
+        try {
+            return ResponseEntity.ok(bloodRequestService.getRequestsPage(cursor, Math.max(1, Math.min(limit, 200)), sort,
+                    "desc".equalsIgnoreCase(direction), status, bloodGroup).map(BloodRequestResponse::from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/pending")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<BloodRequest>> getPendingRequests() {
-        return ResponseEntity.ok(bloodRequestService.getPendingRequests());
+    public ResponseEntity<List<BloodRequestResponse>> getPendingRequests() {
+        return ResponseEntity.ok(toResponses(bloodRequestService.getPendingRequests()));
     }
 
     @GetMapping("/patient/{patientId}")
     @PreAuthorize("hasRole('PATIENT') or hasRole('ADMIN')")
-    public ResponseEntity<List<BloodRequest>> getRequestsByPatientId(@PathVariable Long patientId) {
-        return ResponseEntity.ok(bloodRequestService.getRequestsByPatientId(patientId));
+    public ResponseEntity<List<BloodRequestResponse>> getRequestsByPatientId(@PathVariable Long patientId) {
+        return ResponseEntity.ok(toResponses(bloodRequestService.getRequestsByPatientId(patientId)));
     }
 
     @GetMapping("/donor/{donorId}")
     @PreAuthorize("hasRole('DONOR') or hasRole('ADMIN')")
-    public ResponseEntity<List<BloodRequest>> getRequestsByDonorId(@PathVariable Long donorId) {
-        return ResponseEntity.ok(bloodRequestService.getRequestsByDonorId(donorId));
+    public ResponseEntity<List<BloodRequestResponse>> getRequestsByDonorId(@PathVariable Long donorId) {
+        return ResponseEntity.ok(toResponses(bloodRequestService.getRequestsByDonorId(donorId)));
     }
 
     @PostMapping
     @PreAuthorize("hasRole('DONOR') or hasRole('PATIENT')")
-    public ResponseEntity<BloodRequest> createRequest(@RequestBody BloodRequest request) {
-        return ResponseEntity.ok(bloodRequestService.createRequest(request));
+    public CompletableFuture<ResponseEntity<?>> createRequest(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody BloodRequest request) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/requests",
+                () -> ResponseEntity.ok(BloodRequestResponse.from(bloodRequestService.createRequest(request))));
+    }
+
+    @PutMapping("/bulk/approve")
+    @PreAuthorize("hasRole('ADMIN')")
+    public CompletableFuture<ResponseEntity<?>> approveRequests(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody BulkActionRequest bulkRequest) {
+        return idempotencyService.execute(idempotencyKey, "PUT /api/requests/bulk/approve",
+                () -> ResponseEntity.ok(bloodRequestService.approveRequests(bulkRequest.getIds())));
+    }
+
+    @PutMapping("/bulk/reject")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<BulkActionResult>> rejectRequests(@Valid @RequestBody BulkActionRequest bulkRequest) {
+        return ResponseEntity.ok(bloodRequestService.rejectRequests(bulkRequest.getIds()));
     }
 
     @PutMapping("/{id}/approve")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> approveRequest(@PathVariable Long id) {
+    public CompletableFuture<ResponseEntity<?>> approveRequest(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean substitute) {
+        return idempotencyService.executeAsync(idempotencyKey, "PUT /api/requests/" + id + "/approve",
+                () -> approvalPipeline.approveRequest(id, substitute)
+                        .<ResponseEntity<?>>thenApply(request -> ResponseEntity.ok(BloodRequestResponse.from(request)))
+                        .exceptionally(ApprovalResponses::declined))
+                .exceptionally(ApprovalResponses::unavailable);
+    }
+
+    @PutMapping("/{id}/reject")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rejectRequest(@PathVariable Long id) {
         try {
-            return ResponseEntity.ok(bloodRequestService.approveRequest(id));
+            return ResponseEntity.ok(BloodRequestResponse.from(bloodRequestService.rejectRequest(id)));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
-    @PutMapping("/{id}/reject")
-    @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<BloodRequest> rejectRequest(@PathVariable Long id) {
-        return ResponseEntity.ok(bloodRequestService.rejectRequest(id));
+    private static List<BloodRequestResponse> toResponses(List<BloodRequest> requests) {
+        return requests.stream().map(BloodRequestResponse::from).toList();
     }
 }
 
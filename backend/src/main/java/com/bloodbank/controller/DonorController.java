@@ -1,5 +1,6 @@
 package com.bloodbank.controller;
 
+import com.bloodbank.dto.DonorResponse;
 import com.bloodbank.model.Donor;
 import com.bloodbank.service.DonorService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,28 +19,61 @@ public class DonorController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Donor>> getAllDonors() {
-        return ResponseEntity.ok(donorService.getAllDonors());
+    public ResponseEntity<List<DonorResponse>> getAllDonors() {
+        return ResponseEntity.ok(donorService.getAllDonors().stream().map(DonorResponse::from).toList());
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getDonorsPage(@RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int limit,
+                                           @RequestParam(defaultValue = "id") String sort,
+                                           @RequestParam(defaultValue = "asc") String direction,
+                                           @RequestParam(required = false) String bloodGroup) {
+        try {
+            return ResponseEntity.ok(donorService.getDonorsPage(cursor, Math.max(1, Math.min(limit, 200)), sort,
+                    "desc".equalsIgnoreCase(direction), bloodGroup).map(DonorResponse::from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/nearby")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> findNearbyCompatibleDonors(@RequestParam String bloodGroup,
+                                                        @RequestParam double latitude,
+                                                        @RequestParam double longitude,
+                                                        @RequestParam(defaultValue = "10") int limit,
+                                                        @RequestParam(defaultValue = "50") double radiusKm) {
+        try {
+            // The index scans at most 200 rings of cells; 500 km stays inside that away from the poles.
+            return ResponseEntity.ok(donorService.findNearbyCompatibleDonors(
+                    bloodGroup, latitude, longitude, Math.max(1, Math.min(limit, 100)), Math.min(radiusKm, 500)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Donor> getDonorById(@PathVariable Long id) {
+    public ResponseEntity<DonorResponse> getDonorById(@PathVariable Long id) {
         return donorService.getDonorById(id)
+                .map(DonorResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<Donor> getDonorByUserId(@PathVariable Long userId) {
+    public ResponseEntity<DonorResponse> getDonorByUserId(@PathVariable Long userId) {
         return donorService.getDonorByUserId(userId)
+                .map(DonorResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('DONOR')")
-    public ResponseEntity<Donor> updateDonor(@PathVariable Long id, @RequestBody Donor donorDetails) {
-        return ResponseEntity.ok(donorService.updateDonor(id, donorDetails));
+    public ResponseEntity<DonorResponse> updateDonor(@PathVariable Long id, @RequestBody Donor donorDetails) {
+        return ResponseEntity.ok(DonorResponse.from(donorService.updateDonor(id, donorDetails)));
     }
 
     @DeleteMapping("/{id}")
@@ -1,5 +1,6 @@
 package com.bloodbank.controller;
 
+import com.bloodbank.dto.PatientResponse;
 import com.bloodbank.model.Patient;
 import com.bloodbank.service.PatientService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,28 +19,45 @@ public class PatientController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<Patient>> getAllPatients() {
-        return ResponseEntity.ok(patientService.getAllPatients());
+    public ResponseEntity<List<PatientResponse>> getAllPatients() {
+        return ResponseEntity.ok(patientService.getAllPatients().stream().map(PatientResponse::from).toList());
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> getPatientsPage(@RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "50") int limit,
+                                             @RequestParam(defaultValue = "id") String sort,
+                                             @RequestParam(defaultValue = "asc") String direction,
+                                             @RequestParam(required = false) String bloodGroup) {
+        try {
+            return ResponseEntity.ok(patientService.getPatientsPage(cursor, Math.max(1, Math.min(limit, 200)), sort,
+                    "desc".equalsIgnoreCase(direction), bloodGroup).map(PatientResponse::from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Patient> getPatientById(@PathVariable Long id) {
+    public ResponseEntity<PatientResponse> getPatientById(@PathVariable Long id) {
         return patientService.getPatientById(id)
+                .map(PatientResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<Patient> getPatientByUserId(@PathVariable Long userId) {
+    public ResponseEntity<PatientResponse> getPatientByUserId(@PathVariable Long userId) {
         return patientService.getPatientByUserId(userId)
+                .map(PatientResponse::from)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('PATIENT')")
-    public ResponseEntity<Patient> updatePatient(@PathVariable Long id, @RequestBody Patient patientDetails) {
-        return ResponseEntity.ok(patientService.updatePatient(id, patientDetails));
+    public ResponseEntity<PatientResponse> updatePatient(@PathVariable Long id, @RequestBody Patient patientDetails) {
+        return ResponseEntity.ok(PatientResponse.from(patientService.updatePatient(id, patientDetails)));
     }
 
     @DeleteMapping("/{id}")
@@ -1,11 +1,20 @@
 package com.bloodbank.controller;
 
-import com.bloodbank.model.Stock;
+import com.bloodbank.dto.StockResponse;
+import com.bloodbank.model.BloodUnit;
+import com.bloodbank.security.jwt.JwtUtils;
+import com.bloodbank.security.services.UserDetailsImpl;
+import com.bloodbank.service.BloodUnitInventory;
 import com.bloodbank.service.StockService;
+import com.bloodbank.service.StockStreamService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -17,23 +26,67 @@ public class StockController {
     @Autowired
     private StockService stockService;
 
+    @Autowired
+    private StockStreamService stockStreamService;
+
+    @Autowired
+    private BloodUnitInventory bloodUnitInventory;
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
     @GetMapping
-    public ResponseEntity<List<Stock>> getAllStocks() {
-        return ResponseEntity.ok(stockService.getAllStocks());
+    public ResponseEntity<List<StockResponse>> getAllStocks() {
+        return ResponseEntity.ok(stockService.getAllStocks().stream().map(StockResponse::from).toList());
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<?> checkAvailability(@RequestParam String bloodGroup,
+                                               @RequestParam Integer units,
+                                               @RequestParam(defaultValue = "true") boolean substitute) {
+        try {
+            return ResponseEntity.ok(stockService.checkAvailability(bloodGroup, units, substitute));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStockChanges() {
+        try {
+            return ResponseEntity.ok(stockStreamService.subscribe());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    @PostMapping("/stream/token")
+    public ResponseEntity<Map<String, Object>> issueStreamToken(@AuthenticationPrincipal UserDetailsImpl user) {
+        return ResponseEntity.ok(Map.of(
+                "token", jwtUtils.generateStreamToken(user),
+                "expiresInMs", jwtUtils.getStreamTokenExpirationMs()));
     }
 
     @GetMapping("/{bloodGroup}")
-    public ResponseEntity<Stock> getStockByBloodGroup(@PathVariable String bloodGroup) {
+    public ResponseEntity<StockResponse> getStockByBloodGroup(@PathVariable String bloodGroup) {
         return stockService.getStockByBloodGroup(bloodGroup)
-                .map(ResponseEntity::ok)
+                .map(level -> ResponseEntity.ok(StockResponse.from(level)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @GetMapping("/{bloodGroup}/units")
+    public ResponseEntity<List<BloodUnit>> getAvailableLots(@PathVariable String bloodGroup) {
+        return ResponseEntity.ok(bloodUnitInventory.getAvailableLots(bloodGroup));
+    }
+
     @PutMapping("/{bloodGroup}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Stock> updateStock(@PathVariable String bloodGroup, @RequestBody Map<String, Integer> body) {
+    public ResponseEntity<?> updateStock(@PathVariable String bloodGroup, @RequestBody Map<String, Integer> body) {
         Integer unit = body.get("unit");
-        return ResponseEntity.ok(stockService.updateStock(bloodGroup, unit));
+        if (unit == null || unit < 0) {
+            return ResponseEntity.badRequest().body("unit must be zero or a positive number");
+        }
+        return ResponseEntity.ok(StockResponse.from(stockService.updateStock(bloodGroup, unit)));
     }
 
     @PostMapping("/initialize")
@@ -0,0 +1,27 @@
+package com.bloodbank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdminSummary {
+    private long totalDonors;
+    private Map<String, Long> donorsByBloodGroup;
+    private long totalPatients;
+    private long totalRequests;
+    private Map<String, Long> requestsByStatus;
+    private Map<String, Map<String, Long>> requestsByStatusAndBloodGroup;
+    private long totalDonations;
+    private Map<String, Long> donationsByStatus;
+    private Map<String, Map<String, Long>> donationsByStatusAndBloodGroup;
+    private List<StockResponse> stocks;
+    private long totalBloodUnit;
+    private CursorPage<BloodRequestResponse> pendingRequests;
+    private CursorPage<BloodDonateResponse> pendingDonations;
+}
@@ -0,0 +1,18 @@
+package com.bloodbank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityResponse {
+    private String bloodGroup;
+    private Integer units;
+    private boolean satisfiable;
+    private Integer shortfall;
+    private Map<String, Integer> sources;
+}
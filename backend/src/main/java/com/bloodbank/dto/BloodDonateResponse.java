@@ -0,0 +1,28 @@
+package com.bloodbank.dto;
+
+import com.bloodbank.model.BloodDonate;
+import com.bloodbank.model.BloodDonate.DonationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloodDonateResponse {
+    private Long id;
+    private DonorResponse donor;
+    private String disease;
+    private Integer age;
+    private String bloodGroup;
+    private Integer unit;
+    private DonationStatus status;
+    private LocalDate date;
+
+    public static BloodDonateResponse from(BloodDonate donation) {
+        return new BloodDonateResponse(donation.getId(), DonorResponse.from(donation.getDonor()), donation.getDisease(),
+                donation.getAge(), donation.getBloodGroup(), donation.getUnit(), donation.getStatus(), donation.getDate());
+    }
+}
@@ -0,0 +1,31 @@
+package com.bloodbank.dto;
+
+import com.bloodbank.model.BloodRequest;
+import com.bloodbank.model.BloodRequest.RequestStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloodRequestResponse {
+    private Long id;
+    private PatientResponse patient;
+    private DonorResponse donor;
+    private String patientName;
+    private Integer patientAge;
+    private String reason;
+    private String bloodGroup;
+    private Integer unit;
+    private RequestStatus status;
+    private LocalDate date;
+
+    public static BloodRequestResponse from(BloodRequest request) {
+        return new BloodRequestResponse(request.getId(), PatientResponse.from(request.getPatient()),
+                DonorResponse.from(request.getDonor()), request.getPatientName(), request.getPatientAge(),
+                request.getReason(), request.getBloodGroup(), request.getUnit(), request.getStatus(), request.getDate());
+    }
+}
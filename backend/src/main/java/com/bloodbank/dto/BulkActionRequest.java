@@ -0,0 +1,18 @@
+package com.bloodbank.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkActionRequest {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<Long> ids;
+}
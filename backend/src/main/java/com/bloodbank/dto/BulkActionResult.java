@@ -0,0 +1,23 @@
+package com.bloodbank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkActionResult {
+    private Long id;
+    private boolean success;
+    private String status;
+    private String message;
+
+    public static BulkActionResult succeeded(Long id, Enum<?> status) {
+        return new BulkActionResult(id, true, status.name(), null);
+    }
+
+    public static BulkActionResult failed(Long id, String message) {
+        return new BulkActionResult(id, false, null, message);
+    }
+}
@@ -0,0 +1,23 @@
+package com.bloodbank.dto;
+
+import com.bloodbank.model.BloodDonate.DonationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonationExportRow {
+    private Long id;
+    private Long donorId;
+    private String donorUsername;
+    private String bloodGroup;
+    private Integer unit;
+    private Integer age;
+    private String disease;
+    private DonationStatus status;
+    private LocalDate date;
+}
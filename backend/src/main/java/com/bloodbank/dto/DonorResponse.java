@@ -0,0 +1,28 @@
+package com.bloodbank.dto;
+
+import com.bloodbank.model.Donor;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonorResponse {
+    private Long id;
+    private UserSummary user;
+    private String profilePic;
+    private String bloodGroup;
+    private String address;
+    private String mobile;
+    private Double latitude;
+    private Double longitude;
+
+    public static DonorResponse from(Donor donor) {
+        if (donor == null) {
+            return null;
+        }
+        return new DonorResponse(donor.getId(), UserSummary.from(donor.getUser()), donor.getProfilePic(),
+                donor.getBloodGroup(), donor.getAddress(), donor.getMobile(), donor.getLatitude(), donor.getLongitude());
+    }
+}
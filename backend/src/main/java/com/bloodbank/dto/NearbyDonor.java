@@ -0,0 +1,14 @@
+package com.bloodbank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyDonor {
+    private Long donorId;
+    private String bloodGroup;
+    private Double distanceKm;
+}
@@ -0,0 +1,30 @@
+package com.bloodbank.dto;
+
+import com.bloodbank.model.Patient;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientResponse {
+    private Long id;
+    private UserSummary user;
+    private String profilePic;
+    private Integer age;
+    private String bloodGroup;
+    private String disease;
+    private String doctorName;
+    private String address;
+    private String mobile;
+
+    public static PatientResponse from(Patient patient) {
+        if (patient == null) {
+            return null;
+        }
+        return new PatientResponse(patient.getId(), UserSummary.from(patient.getUser()), patient.getProfilePic(),
+                patient.getAge(), patient.getBloodGroup(), patient.getDisease(), patient.getDoctorName(),
+                patient.getAddress(), patient.getMobile());
+    }
+}
@@ -0,0 +1,24 @@
+package com.bloodbank.dto;
+
+import com.bloodbank.model.BloodRequest.RequestStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestExportRow {
+    private Long id;
+    private Long patientId;
+    private Long donorId;
+    private String patientName;
+    private Integer patientAge;
+    private String reason;
+    private String bloodGroup;
+    private Integer unit;
+    private RequestStatus status;
+    private LocalDate date;
+}
@@ -0,0 +1,20 @@
+package com.bloodbank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuntimeStatus {
+    private boolean virtualThreads;
+    private Long pinnedEvents;
+    private boolean bulkheadEnabled;
+    private Integer bulkheadLimit;
+    private Integer bulkheadInFlight;
+    private Integer bulkheadWaiting;
+    private Long bulkheadRejected;
+    private int hashingQueueDepth;
+    private int hashingActive;
+}
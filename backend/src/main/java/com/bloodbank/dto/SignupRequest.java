@@ -38,6 +38,8 @@ public class SignupRequest {
     private String bloodGroup;
     private String address;
     private String mobile;
+    private Double latitude;
+    private Double longitude;
 
     // Patient specific fields
     private Integer age;
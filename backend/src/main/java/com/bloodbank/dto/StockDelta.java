@@ -0,0 +1,14 @@
+package com.bloodbank.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockDelta {
+    private String bloodGroup;
+    private Integer delta;
+    private Integer unit;
+}
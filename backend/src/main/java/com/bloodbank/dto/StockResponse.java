@@ -0,0 +1,24 @@
+package com.bloodbank.dto;
+
+import com.bloodbank.model.Stock;
+import com.bloodbank.service.StockLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockResponse {
+    private Long id;
+    private String bloodGroup;
+    private Integer unit;
+
+    public static StockResponse from(StockLevel level) {
+        return new StockResponse(level.id(), level.bloodGroup(), level.unit());
+    }
+
+    public static StockResponse from(Stock stock) {
+        return new StockResponse(stock.getId(), stock.getBloodGroup(), stock.getUnit());
+    }
+}
@@ -0,0 +1,24 @@
+package com.bloodbank.dto;
+
+import com.bloodbank.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String username;
+    private String firstName;
+    private String lastName;
+    private String email;
+
+    public static UserSummary from(User user) {
+        if (user == null) {
+            return null;
+        }
+        return new UserSummary(user.getId(), user.getUsername(), user.getFirstName(), user.getLastName(), user.getEmail());
+    }
+}
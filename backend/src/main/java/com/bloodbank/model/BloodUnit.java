@@ -0,0 +1,51 @@
+package com.bloodbank.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * A lot of blood units collected together, normally the units of one approved donation. Units are
+ * drawn from the lot until it is depleted or passes its expiry date, the last day it may be issued.
+ */
+@Entity
+@Table(name = "blood_units")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloodUnit {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "donation_id")
+    private Long donationId;
+
+    @Column(nullable = false)
+    private String bloodGroup;
+
+    @Column(nullable = false)
+    private Integer units;
+
+    @Column(nullable = false)
+    private Integer remaining;
+
+    @Column(nullable = false)
+    private LocalDate collectedOn;
+
+    @Column(nullable = false)
+    private LocalDate expiresOn;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private UnitStatus status = UnitStatus.AVAILABLE;
+
+    public enum UnitStatus {
+        AVAILABLE,
+        DEPLETED,
+        EXPIRED
+    }
+}
@@ -29,5 +29,9 @@ public class Donor {
 
     @Column(nullable = false)
     private String mobile;
+
+    private Double latitude;
+
+    private Double longitude;
 }
 
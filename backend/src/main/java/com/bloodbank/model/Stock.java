@@ -20,5 +20,9 @@ public class Stock {
 
     @Column(nullable = false)
     private Integer unit = 0;
+
+    @Version
+    @Column(nullable = false)
+    private Long version = 0L;
 }
 
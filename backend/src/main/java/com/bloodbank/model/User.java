@@ -33,7 +33,7 @@ public class User {
     @Column(unique = true, nullable = false)
     private String email;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
@@ -42,5 +42,8 @@ public class User {
     private Set<Role> roles = new HashSet<>();
 
     private boolean enabled = true;
+
+    @Column(nullable = false)
+    private Long tokenVersion = 0L;
 }
 
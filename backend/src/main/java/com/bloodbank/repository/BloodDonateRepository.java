@@ -1,15 +1,53 @@
 package com.bloodbank.repository;
 
+import com.bloodbank.dto.DonationExportRow;
 import com.bloodbank.model.BloodDonate;
 import com.bloodbank.model.BloodDonate.DonationStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface BloodDonateRepository extends JpaRepository<BloodDonate, Long> {
+public interface BloodDonateRepository extends JpaRepository<BloodDonate, Long>, JpaSpecificationExecutor<BloodDonate> {
+    @Override
+    @EntityGraph(attributePaths = "donor.user")
+    List<BloodDonate> findAll();
+
+    @EntityGraph(attributePaths = "donor.user")
     List<BloodDonate> findByStatus(DonationStatus status);
+
+    @EntityGraph(attributePaths = "donor.user")
     List<BloodDonate> findByDonor_User_Id(Long userId);
-}
 
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BloodDonate d SET d.status = :to WHERE d.id = :id AND d.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") DonationStatus from, @Param("to") DonationStatus to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BloodDonate d SET d.status = :to WHERE d.id IN :ids AND d.status = :from")
+    int transitionStatuses(@Param("ids") Collection<Long> ids, @Param("from") DonationStatus from, @Param("to") DonationStatus to);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.bloodbank.dto.DonationExportRow(d.id, dn.id, u.username, d.bloodGroup, d.unit, " +
+            "d.age, d.disease, d.status, d.date) FROM BloodDonate d JOIN d.donor dn JOIN dn.user u ORDER BY d.id")
+    Stream<DonationExportRow> streamExportRows();
+
+    @Query("SELECT d.status AS status, d.bloodGroup AS bloodGroup, COUNT(d) AS total " +
+            "FROM BloodDonate d GROUP BY d.status, d.bloodGroup")
+    List<GroupCount> countByStatusAndBloodGroup();
+}
@@ -1,16 +1,57 @@
 package com.bloodbank.repository;
 
+import com.bloodbank.dto.RequestExportRow;
 import com.bloodbank.model.BloodRequest;
 import com.bloodbank.model.BloodRequest.RequestStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
-public interface BloodRequestRepository extends JpaRepository<BloodRequest, Long> {
+public interface BloodRequestRepository extends JpaRepository<BloodRequest, Long>, JpaSpecificationExecutor<BloodRequest> {
+    @Override
+    @EntityGraph(attributePaths = {"patient.user", "donor.user"})
+    List<BloodRequest> findAll();
+
+    @EntityGraph(attributePaths = {"patient.user", "donor.user"})
     List<BloodRequest> findByStatus(RequestStatus status);
+
+    @EntityGraph(attributePaths = {"patient.user", "donor.user"})
     List<BloodRequest> findByPatient_User_Id(Long userId);
+
+    @EntityGraph(attributePaths = {"patient.user", "donor.user"})
     List<BloodRequest> findByDonor_User_Id(Long userId);
-}
 
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BloodRequest r SET r.status = :to WHERE r.id = :id AND r.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") RequestStatus from, @Param("to") RequestStatus to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BloodRequest r SET r.status = :to WHERE r.id IN :ids AND r.status = :from")
+    int transitionStatuses(@Param("ids") Collection<Long> ids, @Param("from") RequestStatus from, @Param("to") RequestStatus to);
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.bloodbank.dto.RequestExportRow(r.id, p.id, dn.id, r.patientName, r.patientAge, " +
+            "r.reason, r.bloodGroup, r.unit, r.status, r.date) " +
+            "FROM BloodRequest r LEFT JOIN r.patient p LEFT JOIN r.donor dn ORDER BY r.id")
+    Stream<RequestExportRow> streamExportRows();
+
+    @Query("SELECT r.status AS status, r.bloodGroup AS bloodGroup, COUNT(r) AS total " +
+            "FROM BloodRequest r GROUP BY r.status, r.bloodGroup")
+    List<GroupCount> countByStatusAndBloodGroup();
+}
@@ -0,0 +1,41 @@
+package com.bloodbank.repository;
+
+import com.bloodbank.model.BloodUnit;
+import com.bloodbank.model.BloodUnit.UnitStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BloodUnitRepository extends JpaRepository<BloodUnit, Long> {
+    List<BloodUnit> findByStatus(UnitStatus status);
+
+    List<BloodUnit> findByBloodGroupAndStatusOrderByExpiresOnAscIdAsc(String bloodGroup, UnitStatus status);
+
+    @Query("SELECT u.bloodGroup, SUM(u.remaining) FROM BloodUnit u WHERE u.bloodGroup IN :bloodGroups " +
+            "AND u.status = :status AND u.expiresOn < :today GROUP BY u.bloodGroup")
+    List<Object[]> sumRemainingExpiredBefore(@Param("bloodGroups") Collection<String> bloodGroups,
+                                             @Param("status") UnitStatus status, @Param("today") LocalDate today);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM BloodUnit u WHERE u.bloodGroup = :bloodGroup AND u.status = :status")
+    List<BloodUnit> lockByBloodGroupAndStatus(@Param("bloodGroup") String bloodGroup, @Param("status") UnitStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM BloodUnit u WHERE u.id IN :ids AND u.bloodGroup = :bloodGroup " +
+            "AND u.status = :status AND u.expiresOn < :today")
+    List<BloodUnit> lockExpired(@Param("ids") Collection<Long> ids, @Param("bloodGroup") String bloodGroup,
+                                @Param("status") UnitStatus status, @Param("today") LocalDate today);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE BloodUnit u SET u.status = :to WHERE u.id IN :ids AND u.status = :from")
+    int transitionStatuses(@Param("ids") Collection<Long> ids, @Param("from") UnitStatus from, @Param("to") UnitStatus to);
+}
@@ -1,13 +1,29 @@
 package com.bloodbank.repository;
 
 import com.bloodbank.model.Donor;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface DonorRepository extends JpaRepository<Donor, Long> {
+public interface DonorRepository extends JpaRepository<Donor, Long>, JpaSpecificationExecutor<Donor> {
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Donor> findAll();
+
     Optional<Donor> findByUser_Id(Long userId);
+
+    @Query("SELECT d.id, d.bloodGroup, d.latitude, d.longitude FROM Donor d " +
+            "WHERE d.latitude IS NOT NULL AND d.longitude IS NOT NULL")
+    Stream<Object[]> streamLocatedDonors();
+
+    @Query("SELECT d.bloodGroup AS bloodGroup, COUNT(d) AS total FROM Donor d GROUP BY d.bloodGroup")
+    List<GroupCount> countByBloodGroup();
 }
 
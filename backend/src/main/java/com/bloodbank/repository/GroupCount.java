@@ -0,0 +1,12 @@
+package com.bloodbank.repository;
+
+/**
+ * Projection for aggregate queries that count rows per status and/or blood group.
+ */
+public interface GroupCount {
+    Object getStatus();
+
+    String getBloodGroup();
+
+    Long getTotal();
+}
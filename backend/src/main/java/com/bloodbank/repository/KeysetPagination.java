@@ -0,0 +1,99 @@
+package com.bloodbank.repository;
+
+import com.bloodbank.dto.CursorPage;
+import jakarta.persistence.criteria.Path;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Keyset ("seek") pagination over a sort column plus the primary key as tie-breaker.
+ * <p>
+ * The cursor is an opaque token holding the sort value and id of the last row returned, so each
+ * page is fetched with a range predicate on an index instead of an ever-growing OFFSET. Associations
+ * named in {@code fetchPaths} are loaded with the page through a fetch graph.
+ */
+public final class KeysetPagination {
+    private static final String ID = "id";
+
+    private KeysetPagination() {
+    }
+
+    public static <T> CursorPage<T> fetch(JpaSpecificationExecutor<T> repository, Specification<T> filter,
+                                          SortField<T, ?> sortField, boolean descending,
+                                          String cursor, int limit, String... fetchPaths) {
+        Specification<T> spec = filter;
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(after(sortField, descending, cursor));
+        }
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = sortField.column().equals(ID)
+                ? Sort.by(direction, ID)
+                : Sort.by(direction, sortField.column()).and(Sort.by(direction, ID));
+
+        List<T> rows = repository.findBy(spec, query -> query.sortBy(sort).project(fetchPaths).limit(limit + 1).all());
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> page = rows.subList(0, limit);
+        return new CursorPage<>(List.copyOf(page), encode(sortField, page.get(limit - 1)));
+    }
+
+    public static <T> Specification<T> attributeEquals(String attribute, Object value) {
+        return (root, query, cb) -> value == null ? null : cb.equal(root.get(attribute), value);
+    }
+
+    public static <T> SortField<T, ?> sortField(Map<String, SortField<T, ?>> fields, String name) {
+        SortField<T, ?> field = fields.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Unsupported sort field: " + name + ", expected one of " + fields.keySet());
+        }
+        return field;
+    }
+
+    private static <T, V extends Comparable<? super V>> Specification<T> after(SortField<T, V> sortField,
+                                                                               boolean descending, String cursor) {
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = decoded.lastIndexOf('\n');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        V value;
+        try {
+            value = sortField.parser().apply(decoded.substring(0, separator));
+        } catch (DateTimeParseException e) {
+            // Callers answer IllegalArgumentException with a 400, as they already do for a malformed id.
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        Long id = Long.valueOf(decoded.substring(separator + 1));
+
+        return (root, query, cb) -> {
+            Path<V> column = root.get(sortField.column());
+            Path<Long> idColumn = root.get(ID);
+            if (sortField.column().equals(ID)) {
+                return descending ? cb.lessThan(idColumn, id) : cb.greaterThan(idColumn, id);
+            }
+            return descending
+                    ? cb.or(cb.lessThan(column, value), cb.and(cb.equal(column, value), cb.lessThan(idColumn, id)))
+                    : cb.or(cb.greaterThan(column, value), cb.and(cb.equal(column, value), cb.greaterThan(idColumn, id)));
+        };
+    }
+
+    private static <T> String encode(SortField<T, ?> sortField, T last) {
+        String raw = sortField.extractor().apply(last) + "\n" + sortField.idExtractor().apply(last);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public record SortField<T, V extends Comparable<? super V>>(String column,
+                                                              Function<T, V> extractor,
+                                                              Function<String, V> parser,
+                                                              Function<T, Long> idExtractor) {
+    }
+}
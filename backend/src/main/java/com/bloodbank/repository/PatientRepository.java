@@ -1,13 +1,20 @@
 package com.bloodbank.repository;
 
 import com.bloodbank.model.Patient;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Long> {
+public interface PatientRepository extends JpaRepository<Patient, Long>, JpaSpecificationExecutor<Patient> {
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<Patient> findAll();
+
     Optional<Patient> findByUser_Id(Long userId);
 }
 
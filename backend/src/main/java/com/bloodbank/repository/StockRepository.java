@@ -1,13 +1,42 @@
 package com.bloodbank.repository;
 
 import com.bloodbank.model.Stock;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface StockRepository extends JpaRepository<Stock, Long> {
     Optional<Stock> findByBloodGroup(String bloodGroup);
-}
+    List<Stock> findByBloodGroupIn(Collection<String> bloodGroups);
+
+    @Query("SELECT COALESCE(SUM(s.version + 1), 0) FROM Stock s")
+    long versionStamp();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Stock s WHERE s.bloodGroup = :bloodGroup")
+    Optional<Stock> lockByBloodGroup(@Param("bloodGroup") String bloodGroup);
 
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Stock s SET s.unit = s.unit - :units, s.version = s.version + 1 " +
+            "WHERE s.bloodGroup = :bloodGroup AND s.unit >= :units")
+    int consumeIfAvailable(@Param("bloodGroup") String bloodGroup, @Param("units") int units);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Stock s SET s.unit = s.unit + :units, s.version = s.version + 1 " +
+            "WHERE s.bloodGroup = :bloodGroup")
+    int replenish(@Param("bloodGroup") String bloodGroup, @Param("units") int units);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Stock s SET s.unit = s.unit + :delta, s.version = s.version + 1 " +
+            "WHERE s.bloodGroup = :bloodGroup AND s.unit + :delta >= 0")
+    int adjustIfNonNegative(@Param("bloodGroup") String bloodGroup, @Param("delta") int delta);
+}
@@ -1,6 +1,7 @@
 package com.bloodbank.security.jwt;
 
-import com.bloodbank.security.services.UserDetailsServiceImpl;
+import com.bloodbank.security.services.TokenVersionService;
+import com.bloodbank.security.services.UserDetailsImpl;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,7 +11,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -18,11 +18,14 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
+    public static final String STOCK_STREAM_PATH = "/api/stock/stream";
+    public static final String STREAM_TOKEN_PARAMETER = "token";
+
     @Autowired
     private JwtUtils jwtUtils;
 
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private TokenVersionService tokenVersionService;
 
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
@@ -31,10 +34,8 @@ public class AuthTokenFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         try {
             String jwt = parseJwt(request);
-            if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-                String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            UserDetailsImpl userDetails = jwt == null ? streamTokenPrincipal(request) : jwtUtils.getUserDetailsFromJwtToken(jwt);
+            if (userDetails != null && tokenVersionService.isCurrent(userDetails.getId(), userDetails.getTokenVersion())) {
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                                 userDetails,
@@ -51,6 +52,17 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    // The stock stream is opened by an EventSource, which cannot set headers, so it also accepts a
+    // stream token in the query string. No other path does.
+    private UserDetailsImpl streamTokenPrincipal(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())
+                || !request.getRequestURI().equals(request.getContextPath() + STOCK_STREAM_PATH)) {
+            return null;
+        }
+        String streamToken = request.getParameter(STREAM_TOKEN_PARAMETER);
+        return StringUtils.hasText(streamToken) ? jwtUtils.getUserDetailsFromStreamToken(streamToken) : null;
+    }
+
     private String parseJwt(HttpServletRequest request) {
         String headerAuth = request.getHeader("Authorization");
 
@@ -1,59 +1,226 @@
 package com.bloodbank.security.jwt;
 
+import com.bloodbank.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_EMAIL = "email";
+    private static final String CLAIM_ROLES = "roles";
+    private static final String CLAIM_TOKEN_VERSION = "ver";
+    private static final String STOCK_STREAM_AUDIENCE = "stock-stream";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.stream-token.expiration-ms:60000}")
+    private int streamTokenExpirationMs;
+
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    private Timer verificationTimer;
+
+    private Counter cacheHits;
+
+    private Counter cacheMisses;
+
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    // Cached tokens in the order they were added, for eviction. Only touched on a cache miss.
+    private final Deque<String> insertionOrder = new ArrayDeque<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verificationTimer = Timer.builder("bloodbank.jwt.verification")
+                .description("Time to parse and verify the signature of an access token")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        cacheHits = Counter.builder("bloodbank.jwt.cache")
+                .description("Verified-token cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        cacheMisses = Counter.builder("bloodbank.jwt.cache")
+                .description("Verified-token cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
     }
 
     public String generateJwtToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
         return Jwts.builder()
                 .subject((userPrincipal.getUsername()))
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_EMAIL, userPrincipal.getEmail())
+                .claim(CLAIM_ROLES, userPrincipal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                .claim(CLAIM_TOKEN_VERSION, userPrincipal.getTokenVersion())
                 .issuedAt(new Date())
                 .expiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Issues a short-lived token that only opens the stock stream. A browser {@code EventSource}
+     * cannot send an {@code Authorization} header, so the dashboard passes this token in the query
+     * string instead of its access token; it is rejected everywhere else.
+     */
+    public String generateStreamToken(UserDetailsImpl userPrincipal) {
+        return Jwts.builder()
+                .subject(userPrincipal.getUsername())
+                .audience().add(STOCK_STREAM_AUDIENCE).and()
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_ROLES, userPrincipal.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList())
+                .claim(CLAIM_TOKEN_VERSION, userPrincipal.getTokenVersion())
+                .issuedAt(new Date())
+                .expiration(new Date((new Date()).getTime() + streamTokenExpirationMs))
+                .signWith(signingKey)
+                .compact();
+    }
+
+    public int getStreamTokenExpirationMs() {
+        return streamTokenExpirationMs;
+    }
+
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        Claims claims = parseClaims(token);
+        return claims == null ? null : claims.getSubject();
+    }
+
+    /**
+     * Returns the principal of a valid token, or null if the token is invalid, expired or was issued
+     * before the user id and roles were embedded.
+     * <p>
+     * Verified tokens are cached until their {@code exp}, so repeat requests with the same token
+     * skip parsing and the HMAC check. Entries are dropped oldest first, once they expire or when
+     * the cache is over its bound. Tokens share one lifetime, so the oldest are also the first to expire.
+     */
+    public UserDetailsImpl getUserDetailsFromJwtToken(String token) {
+        long now = System.currentTimeMillis();
+        VerifiedToken cached = verifiedTokens.get(token);
+        // An expired entry is left for cache() to drop, which keeps the map and its eviction order in step.
+        if (cached != null && now < cached.expiresAtMillis) {
+            cacheHits.increment();
+            return cached.principal;
+        }
+        cacheMisses.increment();
+
+        Claims claims = parseClaims(token);
+        if (claims == null || !isAccessToken(claims)) {
+            return null;
+        }
+        UserDetailsImpl principal = principalFromClaims(claims);
+        if (principal == null) {
+            return null;
+        }
+
+        if (claims.getExpiration() != null) {
+            cache(token, new VerifiedToken(principal, claims.getExpiration().getTime()), now);
+        }
+        return principal;
+    }
+
+    private void cache(String token, VerifiedToken verified, long now) {
+        evictionLock.lock();
+        try {
+            if (verifiedTokens.put(token, verified) == null) {
+                insertionOrder.addLast(token);
+            }
+            // Every cached token is in the deque exactly once, since entries only leave both together here.
+            while (!insertionOrder.isEmpty()) {
+                String oldest = insertionOrder.peekFirst();
+                if (insertionOrder.size() <= cacheMaxEntries && verifiedTokens.get(oldest).expiresAtMillis > now) {
+                    break;
+                }
+                insertionOrder.pollFirst();
+                verifiedTokens.remove(oldest);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the principal of a valid stream token, or null. Stream tokens are used once per
+     * connection, so they are not cached.
+     */
+    public UserDetailsImpl getUserDetailsFromStreamToken(String token) {
+        Claims claims = parseClaims(token);
+        if (claims == null || claims.getAudience() == null || !claims.getAudience().contains(STOCK_STREAM_AUDIENCE)) {
+            return null;
+        }
+        return principalFromClaims(claims);
+    }
+
+    private static boolean isAccessToken(Claims claims) {
+        return claims.getAudience() == null || claims.getAudience().isEmpty();
+    }
+
+    private static UserDetailsImpl principalFromClaims(Claims claims) {
+        Long id = claims.get(CLAIM_USER_ID, Long.class);
+        Long tokenVersion = claims.get(CLAIM_TOKEN_VERSION, Long.class);
+        List<?> roles = claims.get(CLAIM_ROLES, List.class);
+        if (id == null || tokenVersion == null || roles == null) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return new UserDetailsImpl(id, claims.getSubject(), claims.get(CLAIM_EMAIL, String.class),
+                null, authorities, tokenVersion, true);
     }
 
     public boolean validateJwtToken(String authToken) {
+        return parseClaims(authToken) != null;
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or null if it is not valid.
+     */
+    public Claims parseClaims(String authToken) {
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            return parser.parseSignedClaims(authToken).getPayload();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -62,8 +229,14 @@ public class JwtUtils {
             logger.error("JWT token is unsupported: {}", e.getMessage());
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+        } catch (JwtException e) {
+            logger.error("JWT token could not be verified: {}", e.getMessage());
+        } finally {
+            sample.stop(verificationTimer);
         }
-        return false;
+        return null;
     }
-}
 
+    private record VerifiedToken(UserDetailsImpl principal, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.bloodbank.security.services;
+
+public class HashingOverloadedException extends RuntimeException {
+    private final int retryAfterSeconds;
+
+    public HashingOverloadedException(int retryAfterSeconds) {
+        super("Too many sign-in attempts in progress, please retry shortly");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
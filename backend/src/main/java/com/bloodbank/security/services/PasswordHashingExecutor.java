@@ -0,0 +1,106 @@
+package com.bloodbank.security.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing off the servlet threads on a pool sized to the cores.
+ * <p>
+ * The queue in front of the pool is bounded. Once it is full, new work is shed immediately with
+ * {@link HashingOverloadedException} rather than queued, so a burst of sign-ins is answered with a
+ * quick 503 and never holds the request threads the other APIs need.
+ */
+@Component
+public class PasswordHashingExecutor {
+    @Value("${auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${auth.hashing.queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${auth.hashing.retry-after-seconds:2}")
+    private int retryAfterSeconds;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor pool;
+
+    private Timer waitTimer;
+
+    private Timer hashTimer;
+
+    private Counter rejections;
+
+    @PostConstruct
+    public void start() {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        waitTimer = Timer.builder("bloodbank.auth.hashing.wait")
+                .description("Time a password check waits for a hashing thread")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        hashTimer = Timer.builder("bloodbank.auth.hashing")
+                .description("Time spent hashing a password")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rejections = Counter.builder("bloodbank.auth.hashing.rejected")
+                .description("Password checks shed because the hashing queue was full")
+                .register(meterRegistry);
+        Gauge.builder("bloodbank.auth.hashing.queue", this, PasswordHashingExecutor::getQueueDepth)
+                .description("Password checks waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("bloodbank.auth.hashing.active", this, PasswordHashingExecutor::getActiveCount)
+                .description("Hashing threads busy")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        Timer.Sample queued = Timer.start(meterRegistry);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queued.stop(waitTimer);
+                return hashTimer.record(task);
+            }, pool);
+        } catch (RejectedExecutionException e) {
+            rejections.increment();
+            throw new HashingOverloadedException(retryAfterSeconds);
+        }
+    }
+
+    public int getQueueDepth() {
+        return pool.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+}
@@ -0,0 +1,98 @@
+package com.bloodbank.security.services;
+
+import com.bloodbank.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the current token version of each user so that tokens can be revoked without a
+ * {@code users} lookup on every request.
+ * <p>
+ * Tokens carry the version they were issued with. Versions are cached per user for a short TTL,
+ * so a revocation (role change, disabling) takes effect at once on this instance and within the
+ * TTL on the others.
+ */
+@Service
+public class TokenVersionService {
+    private static final long DISABLED = -1L;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${jwt.token-version.cache-ttl-ms:30000}")
+    private long cacheTtlMs;
+
+    @Value("${jwt.token-version.cache-max-entries:100000}")
+    private int cacheMaxEntries;
+
+    private final Map<Long, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    // Cached users in the order they were added, for eviction. Only touched when a version is loaded.
+    private final Deque<Long> insertionOrder = new ArrayDeque<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        long now = System.nanoTime();
+        CachedVersion cached = versions.get(userId);
+        if (cached == null || now - cached.loadedAtNanos > cacheTtlMs * 1_000_000L) {
+            cached = new CachedVersion(userRepository.findActiveTokenVersion(userId).orElse(DISABLED), now);
+            cache(userId, cached);
+        }
+        return cached.version != DISABLED && cached.version == tokenVersion;
+    }
+
+    // When the cache is full the oldest users are dropped one at a time, so a full cache costs one
+    // extra lookup per evicted user rather than one for every user at once.
+    private void cache(Long userId, CachedVersion cached) {
+        evictionLock.lock();
+        try {
+            if (versions.put(userId, cached) == null) {
+                insertionOrder.addLast(userId);
+            }
+            while (insertionOrder.size() > cacheMaxEntries) {
+                versions.remove(insertionOrder.pollFirst());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Transactional
+    public void revokeTokens(Long userId) {
+        if (userRepository.incrementTokenVersion(userId) == 0) {
+            throw new RuntimeException("User not found");
+        }
+        evictAfterCommit(userId);
+    }
+
+    @Transactional
+    public void setEnabled(Long userId, boolean enabled) {
+        if (userRepository.updateEnabled(userId, enabled) == 0) {
+            throw new RuntimeException("User not found");
+        }
+        evictAfterCommit(userId);
+    }
+
+    private void evictAfterCommit(Long userId) {
+        versions.remove(userId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versions.remove(userId);
+            }
+        });
+    }
+
+    private record CachedVersion(long version, long loadedAtNanos) {
+    }
+}
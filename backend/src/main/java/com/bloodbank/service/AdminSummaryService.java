@@ -0,0 +1,101 @@
+package com.bloodbank.service;
+
+import com.bloodbank.dto.AdminSummary;
+import com.bloodbank.dto.BloodDonateResponse;
+import com.bloodbank.dto.BloodRequestResponse;
+import com.bloodbank.dto.StockResponse;
+import com.bloodbank.model.BloodDonate.DonationStatus;
+import com.bloodbank.model.BloodRequest.RequestStatus;
+import com.bloodbank.repository.BloodDonateRepository;
+import com.bloodbank.repository.BloodRequestRepository;
+import com.bloodbank.repository.DonorRepository;
+import com.bloodbank.repository.GroupCount;
+import com.bloodbank.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds the admin dashboard in one call: counts come from GROUP BY queries rather than loading
+ * every row, stock levels come from the in-memory snapshot and only the first page of pending
+ * requests and donations is returned.
+ */
+@Service
+public class AdminSummaryService {
+    @Autowired
+    private DonorRepository donorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+
+    @Autowired
+    private BloodDonateRepository bloodDonateRepository;
+
+    @Autowired
+    private BloodRequestService bloodRequestService;
+
+    @Autowired
+    private BloodDonateService bloodDonateService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Transactional(readOnly = true)
+    public AdminSummary getSummary(int pendingLimit) {
+        AdminSummary summary = new AdminSummary();
+
+        Map<String, Long> donorsByBloodGroup = new TreeMap<>();
+        for (GroupCount count : donorRepository.countByBloodGroup()) {
+            donorsByBloodGroup.put(count.getBloodGroup(), count.getTotal());
+        }
+        summary.setDonorsByBloodGroup(donorsByBloodGroup);
+        summary.setTotalDonors(sum(donorsByBloodGroup));
+        summary.setTotalPatients(patientRepository.count());
+
+        Map<String, Map<String, Long>> requests = byStatusAndBloodGroup(bloodRequestRepository.countByStatusAndBloodGroup());
+        summary.setRequestsByStatusAndBloodGroup(requests);
+        summary.setRequestsByStatus(totals(requests));
+        summary.setTotalRequests(sum(summary.getRequestsByStatus()));
+
+        Map<String, Map<String, Long>> donations = byStatusAndBloodGroup(bloodDonateRepository.countByStatusAndBloodGroup());
+        summary.setDonationsByStatusAndBloodGroup(donations);
+        summary.setDonationsByStatus(totals(donations));
+        summary.setTotalDonations(sum(summary.getDonationsByStatus()));
+
+        List<StockLevel> stocks = stockService.getAllStocks();
+        summary.setStocks(stocks.stream().map(StockResponse::from).toList());
+        summary.setTotalBloodUnit(stocks.stream().mapToLong(StockLevel::unit).sum());
+
+        summary.setPendingRequests(bloodRequestService.getRequestsPage(null, pendingLimit, "id", false,
+                RequestStatus.PENDING, null).map(BloodRequestResponse::from));
+        summary.setPendingDonations(bloodDonateService.getDonationsPage(null, pendingLimit, "id", false,
+                DonationStatus.PENDING, null).map(BloodDonateResponse::from));
+        return summary;
+    }
+
+    private static Map<String, Map<String, Long>> byStatusAndBloodGroup(List<GroupCount> counts) {
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        for (GroupCount count : counts) {
+            result.computeIfAbsent(String.valueOf(count.getStatus()), status -> new TreeMap<>())
+                    .merge(String.valueOf(count.getBloodGroup()), count.getTotal(), Long::sum);
+        }
+        return result;
+    }
+
+    private static Map<String, Long> totals(Map<String, Map<String, Long>> byStatus) {
+        Map<String, Long> result = new TreeMap<>();
+        byStatus.forEach((status, byBloodGroup) -> result.put(status, sum(byBloodGroup)));
+        return result;
+    }
+
+    private static long sum(Map<String, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,82 @@
+package com.bloodbank.service;
+
+import com.bloodbank.dto.BulkActionResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Approval, rejection and stock-shortage metrics:
+ * <ul>
+ *     <li>{@code bloodbank.approval}: time from accepting a single approval to its outcome, tagged by
+ *     {@code type} (request, donation) and {@code outcome} (approved, insufficient_stock, failed)</li>
+ *     <li>{@code bloodbank.decisions}: approved and rejected items, single and bulk, by {@code type} and
+ *     {@code decision}</li>
+ *     <li>{@code bloodbank.stock.insufficient}: approvals refused for lack of stock, by {@code bloodGroup}</li>
+ * </ul>
+ */
+@Component
+public class ApprovalMetrics {
+    public static final String REQUEST = "request";
+    public static final String DONATION = "donation";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    public <T> CompletableFuture<T> timeApproval(String type, Supplier<CompletableFuture<T>> approval) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return approval.get().whenComplete((result, failure) -> {
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure;
+            String outcome;
+            if (cause == null) {
+                outcome = "approved";
+                recordDecisions(type, "approved", 1);
+            } else if (cause instanceof InsufficientStockException shortage) {
+                outcome = "insufficient_stock";
+                recordInsufficientStock(List.of(shortage.getBloodGroup()));
+            } else {
+                outcome = "failed";
+            }
+            sample.stop(Timer.builder("bloodbank.approval")
+                    .description("Time to approve a single blood request or donation")
+                    .tag("type", type)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        });
+    }
+
+    public void recordDecisions(String type, String decision, long count) {
+        if (count > 0) {
+            Counter.builder("bloodbank.decisions")
+                    .description("Approved and rejected blood requests and donations")
+                    .tag("type", type)
+                    .tag("decision", decision)
+                    .register(meterRegistry)
+                    .increment(count);
+        }
+    }
+
+    public void recordBulkDecisions(String type, String decision, List<BulkActionResult> results) {
+        recordDecisions(type, decision, results.stream().filter(BulkActionResult::isSuccess).count());
+    }
+
+    public void recordInsufficientStock(Collection<String> bloodGroups) {
+        for (String bloodGroup : bloodGroups) {
+            Counter.builder("bloodbank.stock.insufficient")
+                    .description("Approvals refused because there was not enough stock")
+                    .tag("bloodGroup", bloodGroup)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
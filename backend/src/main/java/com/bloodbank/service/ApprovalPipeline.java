@@ -0,0 +1,285 @@
+package com.bloodbank.service;
+
+import com.bloodbank.model.BloodDonate;
+import com.bloodbank.model.BloodDonate.DonationStatus;
+import com.bloodbank.model.BloodRequest;
+import com.bloodbank.model.BloodRequest.RequestStatus;
+import com.bloodbank.repository.BloodDonateRepository;
+import com.bloodbank.repository.BloodRequestRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Entry point for request and donation approvals.
+ * <p>
+ * In the default mode approvals run directly through {@link BloodRequestService} and
+ * {@link BloodDonateService}. With {@code stock.approval.batching.enabled=true} every approval is
+ * queued on a per-blood-group lane whose single writer thread drains the queue in micro-batches:
+ * each batch is one transaction with one stock update and one status update per entity type, and
+ * the per-item futures are completed once it commits. A batch that fails is applied again one
+ * approval at a time, so only the approvals that fail on their own are failed.
+ */
+@Service
+public class ApprovalPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(ApprovalPipeline.class);
+
+    @Autowired
+    private BloodRequestService bloodRequestService;
+
+    @Autowired
+    private BloodDonateService bloodDonateService;
+
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+
+    @Autowired
+    private BloodDonateRepository bloodDonateRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private TransactionRetrier transactionRetrier;
+
+    @Autowired
+    private ApprovalMetrics approvalMetrics;
+
+    @Value("${stock.approval.batching.enabled:false}")
+    private boolean batchingEnabled;
+
+    @Value("${stock.approval.batching.max-batch-size:64}")
+    private int maxBatchSize;
+
+    @Value("${stock.approval.batching.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    private volatile boolean shuttingDown;
+
+    public CompletableFuture<BloodRequest> approveRequest(Long requestId, boolean substitute) {
+        return approvalMetrics.timeApproval(ApprovalMetrics.REQUEST, () -> submitRequest(requestId, substitute));
+    }
+
+    public CompletableFuture<BloodDonate> approveDonation(Long donationId) {
+        return approvalMetrics.timeApproval(ApprovalMetrics.DONATION, () -> submitDonation(donationId));
+    }
+
+    private CompletableFuture<BloodRequest> submitRequest(Long requestId, boolean substitute) {
+        // Substitution draws on several groups, so it cannot go through a single group's lane.
+        if (!batchingEnabled || substitute) {
+            try {
+                return CompletableFuture.completedFuture(bloodRequestService.approveRequest(requestId, substitute));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return bloodRequestRepository.findById(requestId)
+                .map(request -> enqueue(request.getBloodGroup(), new Approval<BloodRequest>(Kind.REQUEST, requestId)))
+                .orElseGet(() -> CompletableFuture.failedFuture(new DecisionConflictException("Request not found")));
+    }
+
+    private CompletableFuture<BloodDonate> submitDonation(Long donationId) {
+        if (!batchingEnabled) {
+            try {
+                return CompletableFuture.completedFuture(bloodDonateService.approveDonation(donationId));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return bloodDonateRepository.findById(donationId)
+                .map(donation -> enqueue(donation.getBloodGroup(), new Approval<BloodDonate>(Kind.DONATION, donationId)))
+                .orElseGet(() -> CompletableFuture.failedFuture(new DecisionConflictException("Donation not found")));
+    }
+
+    private <T> CompletableFuture<T> enqueue(String bloodGroup, Approval<T> approval) {
+        if (shuttingDown) {
+            return CompletableFuture.failedFuture(new RuntimeException("Approval pipeline is shutting down"));
+        }
+        // Each lane owns a thread, so only the fixed set of groups may get one.
+        if (BloodCompatibility.indexOf(bloodGroup) < 0) {
+            return CompletableFuture.failedFuture(new DecisionConflictException("Unknown blood group: " + bloodGroup));
+        }
+        Lane lane = lanes.computeIfAbsent(bloodGroup, Lane::new);
+        if (!lane.queue.offer(approval)) {
+            return CompletableFuture.failedFuture(
+                    new RuntimeException("Approval queue for " + bloodGroup + " is full, try again shortly"));
+        }
+        return approval.result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        lanes.values().forEach(lane -> lane.writer.interrupt());
+    }
+
+    private void drain(Lane lane) {
+        List<Approval<?>> batch = new ArrayList<>(maxBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(lane.queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            lane.queue.drainTo(batch, maxBatchSize - 1);
+            process(lane.bloodGroup, batch);
+            batch.clear();
+        }
+        List<Approval<?>> abandoned = new ArrayList<>();
+        lane.queue.drainTo(abandoned);
+        abandoned.forEach(approval ->
+                approval.result.completeExceptionally(new RuntimeException("Approval pipeline is shutting down")));
+    }
+
+    private void process(String bloodGroup, List<Approval<?>> batch) {
+        try {
+            Map<Approval<?>, Object> outcomes = transactionRetrier.execute(() -> applyBatch(bloodGroup, batch));
+            outcomes.forEach(ApprovalPipeline::complete);
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                logger.error("Approval for {} failed: {}", bloodGroup, e.getMessage());
+                batch.get(0).result.completeExceptionally(e);
+                return;
+            }
+            logger.warn("Approval batch of {} for {} failed, retrying one by one: {}", batch.size(), bloodGroup,
+                    e.getMessage());
+        }
+        // The batch was rolled back as a whole, so only the approval that caused it should fail.
+        for (Approval<?> approval : batch) {
+            process(bloodGroup, List.of(approval));
+        }
+    }
+
+    private Map<Approval<?>, Object> applyBatch(String bloodGroup, List<Approval<?>> batch) {
+        Integer level = stockService.usableLevels(List.of(bloodGroup)).get(bloodGroup);
+        if (level == null) {
+            throw new DecisionConflictException("Stock not found");
+        }
+
+        Set<Long> requestIds = new HashSet<>();
+        Set<Long> donationIds = new HashSet<>();
+        for (Approval<?> approval : batch) {
+            (approval.kind == Kind.REQUEST ? requestIds : donationIds).add(approval.id);
+        }
+        Map<Long, BloodRequest> requests = new HashMap<>();
+        bloodRequestRepository.findAllById(requestIds).forEach(r -> requests.put(r.getId(), r));
+        Map<Long, BloodDonate> donations = new HashMap<>();
+        bloodDonateRepository.findAllById(donationIds).forEach(d -> donations.put(d.getId(), d));
+
+        int available = level;
+        int delta = 0;
+        int requested = 0;
+        Set<Long> approvedRequests = new HashSet<>();
+        Set<Long> approvedDonations = new HashSet<>();
+        Map<Approval<?>, Object> outcomes = new HashMap<>();
+
+        for (Approval<?> approval : batch) {
+            if (approval.kind == Kind.REQUEST) {
+                BloodRequest request = requests.get(approval.id);
+                if (request == null) {
+                    outcomes.put(approval, new DecisionConflictException("Request not found"));
+                } else if (request.getStatus() != RequestStatus.PENDING || approvedRequests.contains(request.getId())) {
+                    outcomes.put(approval, new DecisionConflictException("Request has already been processed"));
+                } else if (available + delta < request.getUnit()) {
+                    outcomes.put(approval, new InsufficientStockException(bloodGroup,
+                            "Insufficient blood stock. Only " + (available + delta) + " units available."));
+                } else {
+                    delta -= request.getUnit();
+                    requested += request.getUnit();
+                    approvedRequests.add(request.getId());
+                    outcomes.put(approval, request);
+                }
+            } else {
+                BloodDonate donation = donations.get(approval.id);
+                if (donation == null) {
+                    outcomes.put(approval, new DecisionConflictException("Donation not found"));
+                } else if (donation.getStatus() != DonationStatus.PENDING || approvedDonations.contains(donation.getId())) {
+                    outcomes.put(approval, new DecisionConflictException("Donation has already been processed"));
+                } else {
+                    delta += donation.getUnit();
+                    approvedDonations.add(donation.getId());
+                    outcomes.put(approval, donation);
+                }
+            }
+        }
+
+        // Donations in the batch are received before the requests are drawn, so earlier lots still go first.
+        if (!approvedDonations.isEmpty()) {
+            stockService.receiveDonations(approvedDonations.stream().map(donations::get).toList());
+        }
+        if (requested > 0 && !stockService.allocateUnits(bloodGroup, requested)) {
+            throw new OptimisticLockingFailureException("Stock for " + bloodGroup + " changed during approval batch");
+        }
+        if (!approvedRequests.isEmpty() && bloodRequestRepository.transitionStatuses(
+                approvedRequests, RequestStatus.PENDING, RequestStatus.APPROVED) != approvedRequests.size()) {
+            throw new OptimisticLockingFailureException("Requests changed during approval batch");
+        }
+        if (!approvedDonations.isEmpty() && bloodDonateRepository.transitionStatuses(
+                approvedDonations, DonationStatus.PENDING, DonationStatus.APPROVED) != approvedDonations.size()) {
+            throw new OptimisticLockingFailureException("Donations changed during approval batch");
+        }
+
+        // Entities are detached by the bulk updates above, so the status is only mirrored on them now.
+        approvedRequests.forEach(id -> requests.get(id).setStatus(RequestStatus.APPROVED));
+        approvedDonations.forEach(id -> donations.get(id).setStatus(DonationStatus.APPROVED));
+        return outcomes;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void complete(Approval<?> approval, Object outcome) {
+        if (outcome instanceof Throwable failure) {
+            approval.result.completeExceptionally(failure);
+        } else {
+            ((CompletableFuture<Object>) approval.result).complete(outcome);
+        }
+    }
+
+    private enum Kind {
+        REQUEST,
+        DONATION
+    }
+
+    private static final class Approval<T> {
+        private final Kind kind;
+        private final Long id;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private Approval(Kind kind, Long id) {
+            this.kind = kind;
+            this.id = id;
+        }
+    }
+
+    private final class Lane {
+        private final String bloodGroup;
+        private final BlockingQueue<Approval<?>> queue;
+        private final Thread writer;
+
+        private Lane(String bloodGroup) {
+            this.bloodGroup = bloodGroup;
+            this.queue = new LinkedBlockingQueue<>(queueCapacity);
+            this.writer = new Thread(() -> drain(this), "approval-writer-" + bloodGroup);
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+    }
+}
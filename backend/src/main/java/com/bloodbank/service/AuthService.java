@@ -6,13 +6,14 @@ import com.bloodbank.dto.SignupRequest;
 import com.bloodbank.model.*;
 import com.bloodbank.repository.*;
 import com.bloodbank.security.jwt.JwtUtils;
+import com.bloodbank.security.services.PasswordHashingExecutor;
 import com.bloodbank.security.services.UserDetailsImpl;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,13 +21,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 public class AuthService {
-    @Autowired
-    AuthenticationManager authenticationManager;
-
     @Autowired
     UserRepository userRepository;
 
@@ -45,28 +44,57 @@ public class AuthService {
     @Autowired
     JwtUtils jwtUtils;
 
-    public JwtResponse authenticateUser(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+    @Autowired
+    DonorSearchIndex donorSearchIndex;
 
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String jwt = jwtUtils.generateJwtToken(authentication);
+    @Autowired
+    PasswordHashingExecutor passwordHashingExecutor;
 
-        UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
-        List<String> roles = userDetails.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.toList());
+    // Compared against when the username does not exist, so unknown users take as long as known ones.
+    private String unknownUserHash;
 
-        User user = userRepository.findById(userDetails.getId()).orElseThrow();
+    @PostConstruct
+    public void init() {
+        unknownUserHash = encoder.encode("unknown-user-password");
+    }
 
-        return new JwtResponse(jwt,
-                "Bearer",
-                userDetails.getId(),
-                userDetails.getUsername(),
-                userDetails.getEmail(),
-                user.getFirstName(),
-                user.getLastName(),
-                roles);
+    /**
+     * Loads the user once on the calling thread, then verifies the password on the hashing executor.
+     * Hashes created with a lower BCrypt strength than configured are re-encoded after a successful
+     * sign-in. Throws {@link com.bloodbank.security.services.HashingOverloadedException} when the
+     * executor is saturated.
+     */
+    public CompletableFuture<JwtResponse> authenticateUser(LoginRequest loginRequest) {
+        User user = userRepository.findByUsername(loginRequest.getUsername()).orElse(null);
+        String storedHash = user != null ? user.getPassword() : unknownUserHash;
+
+        return passwordHashingExecutor.submit(() -> {
+            if (!encoder.matches(loginRequest.getPassword(), storedHash) || user == null) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            if (!user.isEnabled()) {
+                throw new DisabledException("User is disabled");
+            }
+            if (encoder.upgradeEncoding(storedHash)) {
+                userRepository.replacePasswordHash(user.getId(), storedHash, encoder.encode(loginRequest.getPassword()));
+            }
+
+            UserDetailsImpl userDetails = UserDetailsImpl.build(user);
+            String jwt = jwtUtils.generateJwtToken(
+                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+            List<String> roles = userDetails.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.toList());
+
+            return new JwtResponse(jwt,
+                    "Bearer",
+                    user.getId(),
+                    user.getUsername(),
+                    user.getEmail(),
+                    user.getFirstName(),
+                    user.getLastName(),
+                    roles);
+        });
     }
 
     @Transactional
@@ -125,7 +153,9 @@ public class AuthService {
             donor.setBloodGroup(signUpRequest.getBloodGroup());
             donor.setAddress(signUpRequest.getAddress());
             donor.setMobile(signUpRequest.getMobile());
-            donorRepository.save(donor);
+            donor.setLatitude(signUpRequest.getLatitude());
+            donor.setLongitude(signUpRequest.getLongitude());
+            donorSearchIndex.upsert(donorRepository.save(donor));
         } else if (strRoles == null || strRoles.contains("patient") || strRoles.isEmpty()) {
             Patient patient = new Patient();
             patient.setUser(user);
@@ -0,0 +1,119 @@
+package com.bloodbank.service;
+
+import java.util.Arrays;
+
+/**
+ * Red cell ABO/RhD compatibility over the eight blood groups seeded by
+ * {@link StockService#initializeBloodGroups()}.
+ * <p>
+ * Groups are addressed by index into {@link #GROUPS}. Compatibility is precomputed as one bitmask of
+ * acceptable donor groups per recipient, together with the order in which donor groups should be
+ * drawn down: the exact group first, then the least versatile donors, so universal groups such as
+ * O- are only used once nothing else can cover the request. None of the lookups allocate.
+ */
+public final class BloodCompatibility {
+    public static final String[] GROUPS = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
+    public static final int GROUP_COUNT = GROUPS.length;
+
+    private static final int ANTIGEN_A = 1;
+    private static final int ANTIGEN_B = 2;
+    private static final int ANTIGEN_D = 4;
+
+    private static final int[] ANTIGENS = {
+            ANTIGEN_A | ANTIGEN_D, ANTIGEN_A,
+            ANTIGEN_B | ANTIGEN_D, ANTIGEN_B,
+            ANTIGEN_A | ANTIGEN_B | ANTIGEN_D, ANTIGEN_A | ANTIGEN_B,
+            ANTIGEN_D, 0
+    };
+
+    // Approximate population frequency per mille, used to prefer common groups between equally versatile donors.
+    private static final int[] PREVALENCE = {357, 63, 85, 15, 34, 6, 374, 66};
+
+    private static final int[] DONOR_MASK = new int[GROUP_COUNT];
+    private static final int[][] DRAW_ORDER = new int[GROUP_COUNT][];
+
+    static {
+        int[] versatility = new int[GROUP_COUNT];
+        for (int recipient = 0; recipient < GROUP_COUNT; recipient++) {
+            for (int donor = 0; donor < GROUP_COUNT; donor++) {
+                if ((ANTIGENS[donor] & ~ANTIGENS[recipient]) == 0) {
+                    DONOR_MASK[recipient] |= 1 << donor;
+                    versatility[donor]++;
+                }
+            }
+        }
+        for (int recipient = 0; recipient < GROUP_COUNT; recipient++) {
+            final int exact = recipient;
+            DRAW_ORDER[recipient] = Arrays.stream(members(DONOR_MASK[recipient]))
+                    .boxed()
+                    .sorted((a, b) -> {
+                        if (a == exact || b == exact) {
+                            return a == exact ? -1 : 1;
+                        }
+                        if (versatility[a] != versatility[b]) {
+                            return Integer.compare(versatility[a], versatility[b]);
+                        }
+                        return Integer.compare(PREVALENCE[b], PREVALENCE[a]);
+                    })
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+    }
+
+    private BloodCompatibility() {
+    }
+
+    public static int indexOf(String bloodGroup) {
+        if (bloodGroup == null) {
+            return -1;
+        }
+        switch (bloodGroup) {
+            case "A+": return 0;
+            case "A-": return 1;
+            case "B+": return 2;
+            case "B-": return 3;
+            case "AB+": return 4;
+            case "AB-": return 5;
+            case "O+": return 6;
+            case "O-": return 7;
+            default: return -1;
+        }
+    }
+
+    public static int compatibleDonorMask(int recipient) {
+        return DONOR_MASK[recipient];
+    }
+
+    public static boolean canDonate(int donor, int recipient) {
+        return (DONOR_MASK[recipient] & (1 << donor)) != 0;
+    }
+
+    /**
+     * Plans how {@code units} for {@code recipient} would be drawn from {@code levels}, writing the
+     * units taken per group into {@code allocation}. Without substitution only the exact group is
+     * used. Returns the shortfall, so zero means the request can be met in full.
+     */
+    public static int plan(int recipient, int units, int[] levels, boolean substitute, int[] allocation) {
+        Arrays.fill(allocation, 0);
+        int remaining = units;
+        int[] order = DRAW_ORDER[recipient];
+        int candidates = substitute ? order.length : 1;
+        for (int i = 0; i < candidates && remaining > 0; i++) {
+            int donor = order[i];
+            int take = Math.min(remaining, Math.max(levels[donor], 0));
+            allocation[donor] = take;
+            remaining -= take;
+        }
+        return remaining;
+    }
+
+    private static int[] members(int mask) {
+        int[] result = new int[Integer.bitCount(mask)];
+        for (int i = 0, n = 0; i < GROUP_COUNT; i++) {
+            if ((mask & (1 << i)) != 0) {
+                result[n++] = i;
+            }
+        }
+        return result;
+    }
+}
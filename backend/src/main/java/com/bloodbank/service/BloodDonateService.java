@@ -1,29 +1,63 @@
 package com.bloodbank.service;
 
+import com.bloodbank.dto.BulkActionResult;
+import com.bloodbank.dto.CursorPage;
 import com.bloodbank.model.BloodDonate;
 import com.bloodbank.model.BloodDonate.DonationStatus;
-import com.bloodbank.model.Stock;
 import com.bloodbank.repository.BloodDonateRepository;
-import com.bloodbank.repository.StockRepository;
+import com.bloodbank.repository.KeysetPagination;
+import com.bloodbank.repository.KeysetPagination.SortField;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BloodDonateService {
+    private static final Map<String, SortField<BloodDonate, ?>> SORT_FIELDS = Map.of(
+            "id", new SortField<>("id", BloodDonate::getId, Long::valueOf, BloodDonate::getId),
+            "date", new SortField<>("date", BloodDonate::getDate, LocalDate::parse, BloodDonate::getId),
+            "bloodGroup", new SortField<>("bloodGroup", BloodDonate::getBloodGroup, Function.identity(), BloodDonate::getId));
+
     @Autowired
     private BloodDonateRepository bloodDonateRepository;
 
     @Autowired
-    private StockRepository stockRepository;
+    private StockService stockService;
+
+    @Autowired
+    private TransactionRetrier transactionRetrier;
+
+    @Autowired
+    private ApprovalMetrics approvalMetrics;
 
+    @Transactional(readOnly = true)
     public List<BloodDonate> getAllDonations() {
         return bloodDonateRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<BloodDonate> getDonationsPage(String cursor, int limit, String sort, boolean descending, DonationStatus status, String bloodGroup) {
+        Specification<BloodDonate> filter = Specification.<BloodDonate>where(null)
+                .and(KeysetPagination.attributeEquals("status", status))
+                .and(KeysetPagination.attributeEquals("bloodGroup", bloodGroup));
+        return KeysetPagination.fetch(bloodDonateRepository, filter, KeysetPagination.sortField(SORT_FIELDS, sort),
+                descending, cursor, limit, "donor.user");
+    }
+
+    @Transactional(readOnly = true)
     public List<BloodDonate> getDonationsByDonorId(Long donorId) {
         return bloodDonateRepository.findByDonor_User_Id(donorId);
     }
@@ -32,26 +66,100 @@ public class BloodDonateService {
         return bloodDonateRepository.save(donation);
     }
 
-    @Transactional
     public BloodDonate approveDonation(Long donationId) {
-        BloodDonate donation = bloodDonateRepository.findById(donationId)
-                .orElseThrow(() -> new RuntimeException("Donation not found"));
+        return transactionRetrier.execute(() -> {
+            BloodDonate donation = bloodDonateRepository.findById(donationId)
+                    .orElseThrow(() -> new DecisionConflictException("Donation not found"));
 
-        Stock stock = stockRepository.findByBloodGroup(donation.getBloodGroup())
-                .orElseThrow(() -> new RuntimeException("Stock not found"));
+            if (bloodDonateRepository.transitionStatus(donationId, DonationStatus.PENDING, DonationStatus.APPROVED) == 0) {
+                throw new DecisionConflictException("Donation has already been processed");
+            }
+            stockService.receiveDonations(List.of(donation));
 
-        stock.setUnit(stock.getUnit() + donation.getUnit());
-        stockRepository.save(stock);
+            donation.setStatus(DonationStatus.APPROVED);
+            return donation;
+        });
+    }
 
-        donation.setStatus(DonationStatus.APPROVED);
-        return bloodDonateRepository.save(donation);
+    public List<BulkActionResult> approveDonations(List<Long> donationIds) {
+        List<BulkActionResult> outcome = transactionRetrier.execute(() -> {
+            Map<Long, BloodDonate> donations = new HashMap<>();
+            bloodDonateRepository.findAllById(donationIds).forEach(d -> donations.put(d.getId(), d));
+            Set<String> knownGroups = stockService.currentLevels(donations.values().stream()
+                    .map(BloodDonate::getBloodGroup)
+                    .collect(Collectors.toSet())).keySet();
+
+            Set<Long> approved = new LinkedHashSet<>();
+            List<BulkActionResult> results = new ArrayList<>(donationIds.size());
+            for (Long id : donationIds) {
+                BloodDonate donation = donations.get(id);
+                if (donation == null) {
+                    results.add(BulkActionResult.failed(id, "Donation not found"));
+                } else if (donation.getStatus() != DonationStatus.PENDING || !approved.add(id)) {
+                    results.add(BulkActionResult.failed(id, "Donation has already been processed"));
+                } else if (!knownGroups.contains(donation.getBloodGroup())) {
+                    approved.remove(id);
+                    results.add(BulkActionResult.failed(id, "Stock not found"));
+                } else {
+                    results.add(BulkActionResult.succeeded(id, DonationStatus.APPROVED));
+                }
+            }
+
+            if (!approved.isEmpty()) {
+                stockService.receiveDonations(approved.stream().map(donations::get).toList());
+            }
+            if (!approved.isEmpty() && bloodDonateRepository.transitionStatuses(
+                    approved, DonationStatus.PENDING, DonationStatus.APPROVED) != approved.size()) {
+                throw new OptimisticLockingFailureException("Donations changed during bulk approval");
+            }
+            return results;
+        });
+        approvalMetrics.recordBulkDecisions(ApprovalMetrics.DONATION, "approved", outcome);
+        return outcome;
+    }
+
+    public List<BulkActionResult> rejectDonations(List<Long> donationIds) {
+        List<BulkActionResult> outcome = transactionRetrier.execute(() -> {
+            Map<Long, BloodDonate> donations = new HashMap<>();
+            bloodDonateRepository.findAllById(donationIds).forEach(d -> donations.put(d.getId(), d));
+
+            Set<Long> rejected = new LinkedHashSet<>();
+            List<BulkActionResult> results = new ArrayList<>(donationIds.size());
+            for (Long id : donationIds) {
+                BloodDonate donation = donations.get(id);
+                if (donation == null) {
+                    results.add(BulkActionResult.failed(id, "Donation not found"));
+                } else if (donation.getStatus() != DonationStatus.PENDING || !rejected.add(id)) {
+                    results.add(BulkActionResult.failed(id, "Donation has already been processed"));
+                } else {
+                    results.add(BulkActionResult.succeeded(id, DonationStatus.REJECTED));
+                }
+            }
+
+            if (!rejected.isEmpty() && bloodDonateRepository.transitionStatuses(
+                    rejected, DonationStatus.PENDING, DonationStatus.REJECTED) != rejected.size()) {
+                throw new OptimisticLockingFailureException("Donations changed during bulk rejection");
+            }
+            return results;
+        });
+        approvalMetrics.recordBulkDecisions(ApprovalMetrics.DONATION, "rejected", outcome);
+        return outcome;
     }
 
     public BloodDonate rejectDonation(Long donationId) {
-        BloodDonate donation = bloodDonateRepository.findById(donationId)
-                .orElseThrow(() -> new RuntimeException("Donation not found"));
-        donation.setStatus(DonationStatus.REJECTED);
-        return bloodDonateRepository.save(donation);
+        BloodDonate rejected = transactionRetrier.execute(() -> {
+            BloodDonate donation = bloodDonateRepository.findById(donationId)
+                    .orElseThrow(() -> new DecisionConflictException("Donation not found"));
+
+            if (bloodDonateRepository.transitionStatus(donationId, DonationStatus.PENDING, DonationStatus.REJECTED) == 0) {
+                throw new DecisionConflictException("Donation has already been processed");
+            }
+
+            donation.setStatus(DonationStatus.REJECTED);
+            return donation;
+        });
+        approvalMetrics.recordDecisions(ApprovalMetrics.DONATION, "rejected", 1);
+        return rejected;
     }
 
     public Optional<BloodDonate> getDonationById(Long id) {
@@ -1,37 +1,73 @@
 package com.bloodbank.service;
 
+import com.bloodbank.dto.BulkActionResult;
+import com.bloodbank.dto.CursorPage;
 import com.bloodbank.model.BloodRequest;
 import com.bloodbank.model.BloodRequest.RequestStatus;
-import com.bloodbank.model.Stock;
 import com.bloodbank.repository.BloodRequestRepository;
-import com.bloodbank.repository.StockRepository;
+import com.bloodbank.repository.KeysetPagination;
+import com.bloodbank.repository.KeysetPagination.SortField;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BloodRequestService {
+    private static final Map<String, SortField<BloodRequest, ?>> SORT_FIELDS = Map.of(
+            "id", new SortField<>("id", BloodRequest::getId, Long::valueOf, BloodRequest::getId),
+            "date", new SortField<>("date", BloodRequest::getDate, LocalDate::parse, BloodRequest::getId),
+            "bloodGroup", new SortField<>("bloodGroup", BloodRequest::getBloodGroup, Function.identity(), BloodRequest::getId));
+
     @Autowired
     private BloodRequestRepository bloodRequestRepository;
 
     @Autowired
-    private StockRepository stockRepository;
+    private StockService stockService;
+
+    @Autowired
+    private TransactionRetrier transactionRetrier;
 
+    @Autowired
+    private ApprovalMetrics approvalMetrics;
+
+    @Transactional(readOnly = true)
     public List<BloodRequest> getAllRequests() {
         return bloodRequestRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<BloodRequest> getRequestsPage(String cursor, int limit, String sort, boolean descending, RequestStatus status, String bloodGroup) {
+        Specification<BloodRequest> filter = Specification.<BloodRequest>where(null)
+                .and(KeysetPagination.attributeEquals("status", status))
+                .and(KeysetPagination.attributeEquals("bloodGroup", bloodGroup));
+        return KeysetPagination.fetch(bloodRequestRepository, filter, KeysetPagination.sortField(SORT_FIELDS, sort),
+                descending, cursor, limit, "patient.user", "donor.user");
+    }
+
+    @Transactional(readOnly = true)
     public List<BloodRequest> getPendingRequests() {
         return bloodRequestRepository.findByStatus(RequestStatus.PENDING);
     }
 
+    @Transactional(readOnly = true)
     public List<BloodRequest> getRequestsByPatientId(Long patientId) {
         return bloodRequestRepository.findByPatient_User_Id(patientId);
     }
 
+    @Transactional(readOnly = true)
     public List<BloodRequest> getRequestsByDonorId(Long donorId) {
         return bloodRequestRepository.findByDonor_User_Id(donorId);
     }
@@ -40,30 +76,128 @@ public class BloodRequestService {
         return bloodRequestRepository.save(request);
     }
 
-    @Transactional
     public BloodRequest approveRequest(Long requestId) {
-        BloodRequest request = bloodRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
+        return approveRequest(requestId, false);
+    }
+
+    public BloodRequest approveRequest(Long requestId, boolean substitute) {
+        return transactionRetrier.execute(() -> {
+            BloodRequest request = bloodRequestRepository.findById(requestId)
+                    .orElseThrow(() -> new DecisionConflictException("Request not found"));
 
-        Stock stock = stockRepository.findByBloodGroup(request.getBloodGroup())
-                .orElseThrow(() -> new RuntimeException("Stock not found"));
+            if (bloodRequestRepository.transitionStatus(requestId, RequestStatus.PENDING, RequestStatus.APPROVED) == 0) {
+                throw new DecisionConflictException("Request has already been processed");
+            }
+            if (substitute) {
+                stockService.consumeCompatibleUnits(request.getBloodGroup(), request.getUnit());
+            } else {
+                stockService.consumeUnits(request.getBloodGroup(), request.getUnit());
+            }
 
-        if (stock.getUnit() >= request.getUnit()) {
-            stock.setUnit(stock.getUnit() - request.getUnit());
-            stockRepository.save(stock);
             request.setStatus(RequestStatus.APPROVED);
-        } else {
-            throw new RuntimeException("Insufficient blood stock. Only " + stock.getUnit() + " units available.");
-        }
+            return request;
+        });
+    }
 
-        return bloodRequestRepository.save(request);
+    public List<BulkActionResult> approveRequests(List<Long> requestIds) {
+        List<String> shortages = new ArrayList<>();
+        List<BulkActionResult> outcome = transactionRetrier.execute(() -> {
+            shortages.clear();
+            Map<Long, BloodRequest> requests = new HashMap<>();
+            bloodRequestRepository.findAllById(requestIds).forEach(r -> requests.put(r.getId(), r));
+            Set<String> bloodGroups = requests.values().stream()
+                    .map(BloodRequest::getBloodGroup)
+                    .collect(Collectors.toSet());
+            Map<String, Integer> levels = stockService.usableLevels(bloodGroups);
+
+            Map<String, Integer> requested = new HashMap<>();
+            Set<Long> approved = new LinkedHashSet<>();
+            List<BulkActionResult> results = new ArrayList<>(requestIds.size());
+            for (Long id : requestIds) {
+                BloodRequest request = requests.get(id);
+                if (request == null) {
+                    results.add(BulkActionResult.failed(id, "Request not found"));
+                    continue;
+                }
+                if (request.getStatus() != RequestStatus.PENDING || approved.contains(id)) {
+                    results.add(BulkActionResult.failed(id, "Request has already been processed"));
+                    continue;
+                }
+                Integer level = levels.get(request.getBloodGroup());
+                if (level == null) {
+                    results.add(BulkActionResult.failed(id, "Stock not found"));
+                    continue;
+                }
+                int available = level - requested.getOrDefault(request.getBloodGroup(), 0);
+                if (available < request.getUnit()) {
+                    shortages.add(request.getBloodGroup());
+                    results.add(BulkActionResult.failed(id,
+                            "Insufficient blood stock. Only " + available + " units available."));
+                    continue;
+                }
+                requested.merge(request.getBloodGroup(), request.getUnit(), Integer::sum);
+                approved.add(id);
+                results.add(BulkActionResult.succeeded(id, RequestStatus.APPROVED));
+            }
+
+            requested.forEach((bloodGroup, units) -> {
+                if (!stockService.allocateUnits(bloodGroup, units)) {
+                    throw new OptimisticLockingFailureException("Stock for " + bloodGroup + " changed during bulk approval");
+                }
+            });
+            if (!approved.isEmpty() && bloodRequestRepository.transitionStatuses(
+                    approved, RequestStatus.PENDING, RequestStatus.APPROVED) != approved.size()) {
+                throw new OptimisticLockingFailureException("Requests changed during bulk approval");
+            }
+            return results;
+        });
+        approvalMetrics.recordBulkDecisions(ApprovalMetrics.REQUEST, "approved", outcome);
+        approvalMetrics.recordInsufficientStock(shortages);
+        return outcome;
+    }
+
+    public List<BulkActionResult> rejectRequests(List<Long> requestIds) {
+        List<BulkActionResult> outcome = transactionRetrier.execute(() -> {
+            Map<Long, BloodRequest> requests = new HashMap<>();
+            bloodRequestRepository.findAllById(requestIds).forEach(r -> requests.put(r.getId(), r));
+
+            Set<Long> rejected = new LinkedHashSet<>();
+            List<BulkActionResult> results = new ArrayList<>(requestIds.size());
+            for (Long id : requestIds) {
+                BloodRequest request = requests.get(id);
+                if (request == null) {
+                    results.add(BulkActionResult.failed(id, "Request not found"));
+                } else if (request.getStatus() != RequestStatus.PENDING || !rejected.add(id)) {
+                    results.add(BulkActionResult.failed(id, "Request has already been processed"));
+                } else {
+                    results.add(BulkActionResult.succeeded(id, RequestStatus.REJECTED));
+                }
+            }
+
+            if (!rejected.isEmpty() && bloodRequestRepository.transitionStatuses(
+                    rejected, RequestStatus.PENDING, RequestStatus.REJECTED) != rejected.size()) {
+                throw new OptimisticLockingFailureException("Requests changed during bulk rejection");
+            }
+            return results;
+        });
+        approvalMetrics.recordBulkDecisions(ApprovalMetrics.REQUEST, "rejected", outcome);
+        return outcome;
     }
 
     public BloodRequest rejectRequest(Long requestId) {
-        BloodRequest request = bloodRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
-        request.setStatus(RequestStatus.REJECTED);
-        return bloodRequestRepository.save(request);
+        BloodRequest rejected = transactionRetrier.execute(() -> {
+            BloodRequest request = bloodRequestRepository.findById(requestId)
+                    .orElseThrow(() -> new DecisionConflictException("Request not found"));
+
+            if (bloodRequestRepository.transitionStatus(requestId, RequestStatus.PENDING, RequestStatus.REJECTED) == 0) {
+                throw new DecisionConflictException("Request has already been processed");
+            }
+
+            request.setStatus(RequestStatus.REJECTED);
+            return request;
+        });
+        approvalMetrics.recordDecisions(ApprovalMetrics.REQUEST, "rejected", 1);
+        return rejected;
     }
 
     public Optional<BloodRequest> getRequestById(Long id) {
@@ -0,0 +1,383 @@
+package com.bloodbank.service;
+
+import com.bloodbank.model.BloodUnit;
+import com.bloodbank.model.BloodUnit.UnitStatus;
+import com.bloodbank.repository.BloodUnitRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Lots of blood units behind the per-group totals in the stock table.
+ * <p>
+ * Each blood group keeps its available lots in memory ordered by expiry date, so an allocation is
+ * planned first-expiry-first-out without a query and written as a single update of every lot it
+ * draws from. The update also marks a lot depleted when it takes the last unit, and the cache
+ * applies the same draws to its own lots instead of reading them back.
+ * <p>
+ * The lots are only a cache: a plan that no longer matches the table fails its conditional update,
+ * drops the group and is retried, and a group that looks short is reloaded with a locking read
+ * before the allocation gives up. Every writer of a group's lots updates the group's stock row
+ * first, so callers hold that row lock and the lots cannot change underneath them.
+ * <p>
+ * Lots are also scheduled on an {@link ExpiryWheel}, which {@link ExpirySweeper} advances to retire
+ * them once they pass their expiry date. Lots written by the other replica are picked up when a
+ * group is reloaded and by the periodic full reload.
+ */
+@Service
+public class BloodUnitInventory {
+    private static final Logger logger = LoggerFactory.getLogger(BloodUnitInventory.class);
+
+    private static final Comparator<Lot> FIRST_EXPIRY = Comparator.comparing((Lot lot) -> lot.expiresOn)
+            .thenComparingLong(lot -> lot.id);
+
+    @Autowired
+    private BloodUnitRepository bloodUnitRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Value("${inventory.shelf-life-days:42}")
+    private int shelfLifeDays;
+
+    @Value("${inventory.expiry.tick-ms:60000}")
+    private long tickMs;
+
+    @Value("${inventory.expiry.wheel-size:2048}")
+    private int wheelSize;
+
+    private final Map<String, Lots> groups = new ConcurrentHashMap<>();
+
+    private ExpiryWheel wheel;
+
+    @PostConstruct
+    public void init() {
+        wheel = new ExpiryWheel(tickMs, wheelSize, System.currentTimeMillis());
+    }
+
+    public BloodUnit newLot(String bloodGroup, int units, Long donationId, LocalDate collectedOn) {
+        return new BloodUnit(null, donationId, bloodGroup, units, units, collectedOn,
+                collectedOn.plusDays(shelfLifeDays), UnitStatus.AVAILABLE);
+    }
+
+    @Transactional(readOnly = true)
+    public List<BloodUnit> getAvailableLots(String bloodGroup) {
+        return bloodUnitRepository.findByBloodGroupAndStatusOrderByExpiresOnAscIdAsc(bloodGroup, UnitStatus.AVAILABLE);
+    }
+
+    /**
+     * Replaces every group's lots with the available lots in the table and schedules their expiry.
+     */
+    public void reloadAll() {
+        try {
+            Map<String, List<BloodUnit>> available = new TransactionTemplate(transactionManager).execute(status ->
+                    bloodUnitRepository.findByStatus(UnitStatus.AVAILABLE).stream()
+                            .collect(Collectors.groupingBy(BloodUnit::getBloodGroup)));
+            Set<String> bloodGroups = new HashSet<>(groups.keySet());
+            bloodGroups.addAll(available.keySet());
+            for (String bloodGroup : bloodGroups) {
+                List<BloodUnit> lots = available.getOrDefault(bloodGroup, List.of());
+                lots(bloodGroup).replace(lots);
+                lots.forEach(this::scheduleExpiry);
+            }
+            logger.debug("Blood unit inventory reloaded, {} lots awaiting expiry", wheel.size());
+        } catch (RuntimeException e) {
+            logger.error("Failed to reload blood unit inventory: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Units the given groups' stock rows still count in lots that are past their expiry date but not
+     * yet retired by the {@link ExpirySweeper}. They cannot be allocated.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Integer> unsweptExpiredUnits(Collection<String> bloodGroups) {
+        Map<String, Integer> expired = new HashMap<>();
+        if (bloodGroups.isEmpty()) {
+            return expired;
+        }
+        for (Object[] row : bloodUnitRepository.sumRemainingExpiredBefore(bloodGroups, UnitStatus.AVAILABLE,
+                LocalDate.now())) {
+            expired.put((String) row[0], ((Number) row[1]).intValue());
+        }
+        return expired;
+    }
+
+    /**
+     * Draws {@code units} from the group's lots, earliest expiry first. The caller must have taken
+     * the units off the group's stock row in the same transaction.
+     *
+     * @throws InsufficientStockException if the group's unexpired lots hold fewer units
+     */
+    public void allocate(String bloodGroup, int units) {
+        if (!tryAllocate(bloodGroup, units)) {
+            throw new InsufficientStockException(bloodGroup, "Insufficient unexpired blood stock. Only "
+                    + lots(bloodGroup).usable(LocalDate.now()) + " units available.");
+        }
+    }
+
+    /**
+     * Like {@link #allocate}, but returns false without drawing anything when the group's unexpired
+     * lots hold fewer than {@code units}.
+     */
+    public boolean tryAllocate(String bloodGroup, int units) {
+        LocalDate today = LocalDate.now();
+        Lots lots = lots(bloodGroup);
+        Plan plan = lots.plan(units, today);
+        if (plan == null) {
+            // The stock row is held, so a locking read sees every committed lot of the group.
+            List<BloodUnit> current = bloodUnitRepository.lockByBloodGroupAndStatus(bloodGroup, UnitStatus.AVAILABLE);
+            lots.replace(current);
+            current.forEach(this::scheduleExpiry);
+            plan = lots.plan(units, today);
+            if (plan == null) {
+                return false;
+            }
+        }
+
+        if (draw(plan.draws(), today) != plan.draws().size()) {
+            lots.invalidate();
+            throw new OptimisticLockingFailureException("Blood unit lots of " + bloodGroup
+                    + " changed during allocation");
+        }
+
+        Plan drawn = plan;
+        runAfterCommit(() -> lots.apply(drawn).forEach(wheel::cancel));
+        return true;
+    }
+
+    /*
+     * Writes every draw of a plan in one statement and returns the number of lots it updated, which
+     * falls short of the plan when a lot no longer holds the units drawn from it. The status is
+     * assigned first because MySQL evaluates later assignments against the new values.
+     */
+    private int draw(List<Draw> draws, LocalDate today) {
+        StringBuilder units = new StringBuilder("CASE id");
+        Map<String, Object> params = new HashMap<>();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < draws.size(); i++) {
+            units.append(" WHEN :id").append(i).append(" THEN :units").append(i);
+            params.put("id" + i, draws.get(i).lotId());
+            params.put("units" + i, draws.get(i).units());
+            ids.add(draws.get(i).lotId());
+        }
+        units.append(" END");
+        params.put("ids", ids);
+        params.put("available", UnitStatus.AVAILABLE.name());
+        params.put("depleted", UnitStatus.DEPLETED.name());
+        params.put("today", today);
+        return jdbcTemplate.update("UPDATE blood_units SET status = CASE WHEN remaining = " + units
+                + " THEN :depleted ELSE status END, remaining = remaining - " + units
+                + " WHERE id IN (:ids) AND status = :available AND expires_on >= :today"
+                + " AND remaining >= " + units, params);
+    }
+
+    /**
+     * Stores new lots. The caller must have added their units to the groups' stock rows in the same
+     * transaction.
+     */
+    public void receive(List<BloodUnit> lots) {
+        List<BloodUnit> saved = bloodUnitRepository.saveAll(lots);
+        runAfterCommit(() -> saved.forEach(lot -> {
+            lots(lot.getBloodGroup()).add(lot);
+            scheduleExpiry(lot);
+        }));
+    }
+
+    /**
+     * Marks the given lots of a group expired if they are still available and past their expiry
+     * date, and returns the units they still held. The caller must hold the group's stock row.
+     */
+    public int expire(String bloodGroup, Collection<Long> lotIds) {
+        List<BloodUnit> due = bloodUnitRepository.lockExpired(lotIds, bloodGroup, UnitStatus.AVAILABLE, LocalDate.now());
+        if (due.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = due.stream().map(BloodUnit::getId).toList();
+        if (bloodUnitRepository.transitionStatuses(ids, UnitStatus.AVAILABLE, UnitStatus.EXPIRED) != ids.size()) {
+            throw new OptimisticLockingFailureException("Blood unit lots of " + bloodGroup + " changed during expiry");
+        }
+        Lots lots = lots(bloodGroup);
+        runAfterCommit(() -> lots.remove(ids));
+        return due.stream().mapToInt(BloodUnit::getRemaining).sum();
+    }
+
+    List<ExpiryWheel.Entry> dueForExpiry(long nowMs) {
+        return wheel.advance(nowMs);
+    }
+
+    void retryExpiry(String bloodGroup, Collection<Long> lotIds) {
+        lotIds.forEach(id -> wheel.schedule(id, bloodGroup, 0));
+    }
+
+    private Lots lots(String bloodGroup) {
+        return groups.computeIfAbsent(bloodGroup, group -> new Lots());
+    }
+
+    private void scheduleExpiry(BloodUnit lot) {
+        // A lot may be issued throughout its expiry date and expires at the following midnight.
+        long deadline = lot.getExpiresOn().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        wheel.schedule(lot.getId(), lot.getBloodGroup(), deadline);
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private record Draw(long lotId, int units) {
+    }
+
+    private record Plan(List<Draw> draws, long generation) {
+    }
+
+    private static final class Lot {
+        private final long id;
+        private final LocalDate expiresOn;
+        private int remaining;
+
+        private Lot(long id, LocalDate expiresOn, int remaining) {
+            this.id = id;
+            this.expiresOn = expiresOn;
+            this.remaining = remaining;
+        }
+    }
+
+    /*
+     * The available lots of one group. The generation changes whenever the lots are replaced or
+     * dropped, so a committed allocation planned against an older set drops the group instead of
+     * applying its draws twice.
+     */
+    private static final class Lots {
+        private final TreeSet<Lot> byExpiry = new TreeSet<>(FIRST_EXPIRY);
+        private final Map<Long, Lot> byId = new HashMap<>();
+        private boolean loaded;
+        private long generation;
+
+        synchronized void replace(List<BloodUnit> units) {
+            byExpiry.clear();
+            byId.clear();
+            units.forEach(this::put);
+            loaded = true;
+            generation++;
+        }
+
+        synchronized void invalidate() {
+            byExpiry.clear();
+            byId.clear();
+            loaded = false;
+            generation++;
+        }
+
+        synchronized void add(BloodUnit unit) {
+            if (loaded && !byId.containsKey(unit.getId())) {
+                put(unit);
+            }
+        }
+
+        synchronized void remove(Collection<Long> ids) {
+            for (Long id : ids) {
+                Lot lot = byId.remove(id);
+                if (lot != null) {
+                    byExpiry.remove(lot);
+                }
+            }
+        }
+
+        /**
+         * Returns the draws covering {@code units} from unexpired lots, or null when the lots are not
+         * loaded or hold too few units.
+         */
+        synchronized Plan plan(int units, LocalDate today) {
+            if (!loaded) {
+                return null;
+            }
+            List<Draw> draws = new ArrayList<>();
+            int needed = units;
+            for (Lot lot : byExpiry.tailSet(new Lot(Long.MIN_VALUE, today, 0), true)) {
+                if (needed == 0) {
+                    break;
+                }
+                int take = Math.min(needed, lot.remaining);
+                draws.add(new Draw(lot.id, take));
+                needed -= take;
+            }
+            return needed == 0 ? new Plan(draws, generation) : null;
+        }
+
+        synchronized int usable(LocalDate today) {
+            return byExpiry.tailSet(new Lot(Long.MIN_VALUE, today, 0), true).stream()
+                    .mapToInt(lot -> lot.remaining)
+                    .sum();
+        }
+
+        /**
+         * Applies the draws of a committed allocation and returns the lots it emptied. A lot the
+         * other replica drew from still looks fuller here than in the table; the next plan that
+         * relies on it fails its update and reloads the group.
+         */
+        synchronized List<Long> apply(Plan plan) {
+            List<Long> emptied = new ArrayList<>();
+            if (plan.generation() != generation) {
+                invalidate();
+                return emptied;
+            }
+            for (Draw draw : plan.draws()) {
+                Lot lot = byId.get(draw.lotId());
+                if (lot == null) {
+                    continue;
+                }
+                lot.remaining -= draw.units();
+                if (lot.remaining <= 0) {
+                    byId.remove(lot.id);
+                    byExpiry.remove(lot);
+                    emptied.add(lot.id);
+                }
+            }
+            return emptied;
+        }
+
+        private void put(BloodUnit unit) {
+            if (unit.getRemaining() > 0) {
+                Lot lot = new Lot(unit.getId(), unit.getExpiresOn(), unit.getRemaining());
+                byExpiry.add(lot);
+                byId.put(lot.id, lot);
+            }
+        }
+    }
+}
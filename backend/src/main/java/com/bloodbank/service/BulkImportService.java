@@ -0,0 +1,460 @@
+package com.bloodbank.service;
+
+import com.bloodbank.dto.ImportReport;
+import com.bloodbank.dto.ImportRowError;
+import com.bloodbank.dto.SignupRequest;
+import com.bloodbank.model.Role;
+import com.bloodbank.repository.RoleRepository;
+import com.bloodbank.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Imports donors or patients from a CSV upload.
+ * <p>
+ * The file is read as a stream and processed in chunks. For each chunk, uniqueness of usernames and
+ * emails is checked with one IN query each, passwords are hashed in parallel on a pool sized to the
+ * available cores, and users, roles and profiles are written with JDBC batch inserts in a single
+ * transaction. Rows that fail validation are reported by line number instead of failing the upload.
+ * When the database rejects a chunk, its rows are retried one per transaction so only the rows it
+ * rejects are reported.
+ */
+@Service
+public class BulkImportService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+
+    private static final List<String> USER_COLUMNS = List.of(
+            "username", "email", "password", "firstName", "lastName", "bloodGroup", "address", "mobile");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PasswordEncoder encoder;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DonorSearchIndex donorSearchIndex;
+
+    @Value("${import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${import.hash-threads:0}")
+    private int hashThreads;
+
+    private ExecutorService hashingPool;
+
+    public enum Kind {
+        DONOR(Role.ERole.ROLE_DONOR, List.of()),
+        PATIENT(Role.ERole.ROLE_PATIENT, List.of("age", "disease", "doctorName"));
+
+        private final Role.ERole role;
+        private final List<String> profileColumns;
+
+        Kind(Role.ERole role, List<String> profileColumns) {
+            this.role = role;
+            this.profileColumns = profileColumns;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        hashingPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "import-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        hashingPool.shutdownNow();
+    }
+
+    public ImportReport importCsv(Kind kind, InputStream input) throws IOException {
+        Role role = roleRepository.findByName(kind.role)
+                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+
+        List<String> header = reader.next();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV file is empty");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).replace("\uFEFF", "").trim(), i);
+        }
+        List<String> required = new ArrayList<>(USER_COLUMNS);
+        required.addAll(kind.profileColumns);
+        List<String> missing = required.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("Missing CSV columns: " + missing);
+        }
+
+        List<ImportRowError> errors = new ArrayList<>();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        int total = 0;
+        int imported = 0;
+        List<String> record;
+        while ((record = reader.next()) != null) {
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            total++;
+            Row row = parse(kind, columns, record, reader.recordLine(), errors);
+            if (row == null) {
+                continue;
+            }
+            if (!seenUsernames.add(key(row.request.getUsername()))) {
+                errors.add(error(row, "Duplicate username in file"));
+            } else if (!seenEmails.add(key(row.request.getEmail()))) {
+                errors.add(error(row, "Duplicate email in file"));
+            } else {
+                chunk.add(row);
+            }
+            if (chunk.size() >= chunkSize) {
+                imported += flush(kind, role, chunk, errors);
+                chunk.clear();
+            }
+        }
+        imported += flush(kind, role, chunk, errors);
+
+        if (kind == Kind.DONOR && imported > 0) {
+            donorSearchIndex.rebuild();
+        }
+        errors.sort(Comparator.comparingLong(ImportRowError::getLine));
+        return new ImportReport(total, imported, errors);
+    }
+
+    private Row parse(Kind kind, Map<String, Integer> columns, List<String> record, long line,
+                      List<ImportRowError> errors) {
+        SignupRequest request = new SignupRequest();
+        request.setUsername(value(columns, record, "username"));
+        request.setEmail(value(columns, record, "email"));
+        request.setPassword(value(columns, record, "password"));
+        request.setFirstName(value(columns, record, "firstName"));
+        request.setLastName(value(columns, record, "lastName"));
+        request.setBloodGroup(value(columns, record, "bloodGroup"));
+        request.setAddress(value(columns, record, "address"));
+        request.setMobile(value(columns, record, "mobile"));
+        request.setDisease(value(columns, record, "disease"));
+        request.setDoctorName(value(columns, record, "doctorName"));
+        Row row = new Row(line, request);
+
+        List<String> problems = validator.validate(request).stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (BloodCompatibility.indexOf(request.getBloodGroup()) < 0) {
+            problems.add("bloodGroup must be one of " + String.join(", ", BloodCompatibility.GROUPS));
+        }
+        requirePresent(request.getAddress(), "address", problems);
+        requirePresent(request.getMobile(), "mobile", problems);
+        try {
+            String latitude = value(columns, record, "latitude");
+            String longitude = value(columns, record, "longitude");
+            if (latitude != null && longitude != null) {
+                request.setLatitude(Double.valueOf(latitude));
+                request.setLongitude(Double.valueOf(longitude));
+            }
+        } catch (NumberFormatException e) {
+            problems.add("latitude and longitude must be numbers");
+        }
+        if (kind == Kind.PATIENT) {
+            try {
+                String age = value(columns, record, "age");
+                request.setAge(age == null ? null : Integer.valueOf(age));
+            } catch (NumberFormatException e) {
+                problems.add("age must be a whole number");
+            }
+            requirePresent(request.getAge(), "age", problems);
+            requirePresent(request.getDisease(), "disease", problems);
+            requirePresent(request.getDoctorName(), "doctorName", problems);
+        }
+
+        if (!problems.isEmpty()) {
+            errors.add(error(row, String.join("; ", problems)));
+            return null;
+        }
+        return row;
+    }
+
+    private int flush(Kind kind, Role role, List<Row> chunk, List<ImportRowError> errors) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Set<String> takenUsernames = userRepository.findExistingUsernames(
+                chunk.stream().map(row -> row.request.getUsername()).toList()).stream()
+                .map(BulkImportService::key)
+                .collect(Collectors.toSet());
+        Set<String> takenEmails = userRepository.findExistingEmails(
+                chunk.stream().map(row -> row.request.getEmail()).toList()).stream()
+                .map(BulkImportService::key)
+                .collect(Collectors.toSet());
+
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        for (Row row : chunk) {
+            if (takenUsernames.contains(key(row.request.getUsername()))) {
+                errors.add(error(row, "Username is already taken"));
+            } else if (takenEmails.contains(key(row.request.getEmail()))) {
+                errors.add(error(row, "Email is already in use"));
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+
+        hashPasswords(accepted);
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert(kind, role, accepted));
+            return accepted.size();
+        } catch (DataAccessException e) {
+            logger.warn("Import chunk of {} rows failed, retrying row by row: {}", accepted.size(),
+                    e.getMostSpecificCause().getMessage());
+        }
+        // The batch was rolled back as a whole, so find the offending rows and keep the rest.
+        int imported = 0;
+        for (Row row : accepted) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(kind, role, List.of(row)));
+                imported++;
+            } catch (DataAccessException e) {
+                errors.add(error(row, "Rejected: " + e.getMostSpecificCause().getMessage()));
+            }
+        }
+        return imported;
+    }
+
+    private void hashPasswords(List<Row> rows) {
+        List<Future<String>> hashes = new ArrayList<>(rows.size());
+        for (Row row : rows) {
+            String password = row.request.getPassword();
+            hashes.add(hashingPool.submit(() -> encoder.encode(password)));
+        }
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).passwordHash = hashes.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            hashes.forEach(hash -> hash.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to hash password", e.getCause());
+        }
+    }
+
+    private void insert(Kind kind, Role role, List<Row> rows) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO users (username, password, first_name, last_name, email, enabled, token_version) " +
+                        "VALUES (:username, :password, :firstName, :lastName, :email, TRUE, 0)",
+                rows.stream().map(row -> new MapSqlParameterSource()
+                        .addValue("username", row.request.getUsername())
+                        .addValue("password", row.passwordHash)
+                        .addValue("firstName", row.request.getFirstName())
+                        .addValue("lastName", row.request.getLastName())
+                        .addValue("email", row.request.getEmail())).toArray(SqlParameterSource[]::new));
+
+        Map<String, Long> userIds = new HashMap<>();
+        jdbcTemplate.query("SELECT id, username FROM users WHERE username IN (:usernames)",
+                new MapSqlParameterSource("usernames", rows.stream().map(row -> row.request.getUsername()).toList()),
+                rs -> {
+                    userIds.put(key(rs.getString("username")), rs.getLong("id"));
+                });
+
+        jdbcTemplate.batchUpdate("INSERT INTO user_roles (user_id, role_id) VALUES (:userId, :roleId)",
+                rows.stream().map(row -> new MapSqlParameterSource()
+                        .addValue("userId", userIds.get(key(row.request.getUsername())))
+                        .addValue("roleId", role.getId())).toArray(SqlParameterSource[]::new));
+
+        if (kind == Kind.DONOR) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO donors (user_id, blood_group, address, mobile, latitude, longitude) " +
+                            "VALUES (:userId, :bloodGroup, :address, :mobile, :latitude, :longitude)",
+                    rows.stream().map(row -> new MapSqlParameterSource()
+                            .addValue("userId", userIds.get(key(row.request.getUsername())))
+                            .addValue("bloodGroup", row.request.getBloodGroup())
+                            .addValue("address", row.request.getAddress())
+                            .addValue("mobile", row.request.getMobile())
+                            .addValue("latitude", row.request.getLatitude())
+                            .addValue("longitude", row.request.getLongitude())).toArray(SqlParameterSource[]::new));
+        } else {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO patients (user_id, age, blood_group, disease, doctor_name, address, mobile) " +
+                            "VALUES (:userId, :age, :bloodGroup, :disease, :doctorName, :address, :mobile)",
+                    rows.stream().map(row -> new MapSqlParameterSource()
+                            .addValue("userId", userIds.get(key(row.request.getUsername())))
+                            .addValue("age", row.request.getAge())
+                            .addValue("bloodGroup", row.request.getBloodGroup())
+                            .addValue("disease", row.request.getDisease())
+                            .addValue("doctorName", row.request.getDoctorName())
+                            .addValue("address", row.request.getAddress())
+                            .addValue("mobile", row.request.getMobile())).toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    private static String value(Map<String, Integer> columns, List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static void requirePresent(Object value, String column, List<String> problems) {
+        if (value == null && problems.stream().noneMatch(problem -> problem.startsWith(column + " "))) {
+            problems.add(column + " must not be blank");
+        }
+    }
+
+    // MySQL's default collation compares usernames and emails case-insensitively.
+    private static String key(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static ImportRowError error(Row row, String message) {
+        return new ImportRowError(row.line, row.request.getUsername(), message);
+    }
+
+    private static final class Row {
+        private final long line;
+        private final SignupRequest request;
+        private String passwordHash;
+
+        private Row(long line, SignupRequest request) {
+            this.line = line;
+            this.request = request;
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 reader: comma separated, double-quoted fields may contain commas, escaped
+     * quotes and line breaks.
+     */
+    private static final class CsvReader {
+        private final Reader reader;
+        private long line = 1;
+        private long recordLine;
+        private int pushedBack = -2;
+
+        private CsvReader(Reader reader) {
+            this.reader = reader;
+        }
+
+        private long recordLine() {
+            return recordLine;
+        }
+
+        private List<String> next() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            recordLine = line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Unterminated quoted field starting on line " + recordLine);
+                    }
+                    if (c == '"') {
+                        int following = read();
+                        if (following == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = following;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        int following = read();
+                        if (following != '\n') {
+                            pushedBack = following;
+                        }
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+
+        private int read() throws IOException {
+            int c;
+            if (pushedBack != -2) {
+                c = pushedBack;
+                pushedBack = -2;
+            } else {
+                c = reader.read();
+            }
+            if (c == '\n') {
+                line++;
+            }
+            return c;
+        }
+    }
+}
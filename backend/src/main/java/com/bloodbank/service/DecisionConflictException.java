@@ -0,0 +1,12 @@
+package com.bloodbank.service;
+
+/**
+ * A request or donation could not be decided because of its own state or the stock level: it does
+ * not exist, has already been processed, or there is not enough stock. Unlike a concurrency or
+ * capacity failure, retrying gives the same answer until that state changes.
+ */
+public class DecisionConflictException extends RuntimeException {
+    public DecisionConflictException(String message) {
+        super(message);
+    }
+}
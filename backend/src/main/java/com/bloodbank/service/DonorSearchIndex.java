@@ -0,0 +1,404 @@
+package com.bloodbank.service;
+
+import com.bloodbank.dto.NearbyDonor;
+import com.bloodbank.model.Donor;
+import com.bloodbank.repository.DonorRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of donors with known coordinates, answering "top-K compatible donors near a point".
+ * <p>
+ * Donor data lives in parallel primitive arrays addressed by slot. Slots are bucketed by a
+ * {@value #CELL_DEGREES}-degree lat/lon grid cell and blood group, so a query only scans the
+ * buckets of compatible groups, ring by ring outwards from the query cell, and stops as soon as
+ * the next ring cannot beat the current K-th best distance. The index is kept up to date by
+ * signup and donor updates on this replica and rebuilt periodically from the primary to pick up
+ * the other one.
+ */
+@Service
+public class DonorSearchIndex {
+    private static final Logger logger = LoggerFactory.getLogger(DonorSearchIndex.class);
+
+    private static final double CELL_DEGREES = 0.1;
+    private static final double KM_PER_DEGREE = 111.32;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final int MAX_RING = 200;
+
+    @Autowired
+    private DonorRepository donorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${donor.index.rebuild-interval-ms:300000}")
+    private long rebuildIntervalMs;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Lock rebuildLock = new ReentrantLock();
+
+    private Grid grid = new Grid(1024);
+
+    // Changes applied since the running rebuild started reading, or null when none is running.
+    private List<Consumer<Grid>> duringRebuild;
+
+    private ScheduledExecutorService rebuilder;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "donor-index-rebuilder");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuilder.scheduleWithFixedDelay(this::rebuild, rebuildIntervalMs, rebuildIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads every located donor from the primary into a new grid and swaps it in. Changes applied
+     * while the read is running are recorded and replayed onto the new grid before the swap, since
+     * the read may have missed them.
+     */
+    public void rebuild() {
+        // Rebuilds come from the scheduler and from imports; each needs the change log to itself.
+        rebuildLock.lock();
+        try {
+            rebuildSerially();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildSerially() {
+        List<Consumer<Grid>> changes = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            duringRebuild = changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            // Not read-only: read-only transactions are routed to the replica, which may lag behind.
+            Grid fresh = new TransactionTemplate(transactionManager).execute(status -> {
+                Grid next = new Grid(Math.max(1024, grid.size));
+                try (Stream<Object[]> rows = donorRepository.streamLocatedDonors()) {
+                    rows.forEach(row -> next.put((Long) row[0], BloodCompatibility.indexOf((String) row[1]),
+                            (Double) row[2], (Double) row[3]));
+                }
+                return next;
+            });
+            lock.writeLock().lock();
+            try {
+                changes.forEach(change -> change.accept(fresh));
+                grid = fresh;
+            } finally {
+                duringRebuild = null;
+                lock.writeLock().unlock();
+            }
+            logger.debug("Donor search index rebuilt with {} donors, {} changes replayed", fresh.size, changes.size());
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                duringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.error("Failed to rebuild donor search index: {}", e.getMessage());
+        }
+    }
+
+    public void upsert(Donor donor) {
+        Long id = donor.getId();
+        int group = BloodCompatibility.indexOf(donor.getBloodGroup());
+        Double latitude = donor.getLatitude();
+        Double longitude = donor.getLongitude();
+        if (group < 0 || latitude == null || longitude == null) {
+            remove(id);
+        } else {
+            runAfterCommit(() -> apply(target -> target.put(id, group, latitude, longitude)));
+        }
+    }
+
+    public void remove(Long donorId) {
+        runAfterCommit(() -> apply(target -> target.remove(donorId)));
+    }
+
+    public List<NearbyDonor> findNearest(String recipientGroup, double latitude, double longitude,
+                                         int limit, double maxDistanceKm) {
+        int recipient = BloodCompatibility.indexOf(recipientGroup);
+        if (recipient < 0) {
+            throw new RuntimeException("Unknown blood group: " + recipientGroup);
+        }
+        lock.readLock().lock();
+        try {
+            return grid.nearest(BloodCompatibility.compatibleDonorMask(recipient), latitude, longitude,
+                    limit, maxDistanceKm);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Grid> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(grid);
+            if (duringRebuild != null) {
+                duringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static int cellKey(int latCell, int lonCell, int group) {
+        return ((((latCell + 2048) & 0xFFF) << 12 | ((lonCell + 2048) & 0xFFF)) << 3) | group;
+    }
+
+    private static int latCell(double latitude) {
+        return (int) Math.floor(latitude / CELL_DEGREES);
+    }
+
+    private static int lonCell(double longitude) {
+        return (int) Math.floor(longitude / CELL_DEGREES);
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static final class Bucket {
+        private int[] slots = new int[4];
+        private int size;
+    }
+
+    private static final class Grid {
+        private long[] ids;
+        private byte[] groups;
+        private float[] latitudes;
+        private float[] longitudes;
+        private int[] cells;
+        private int[] positions;
+        private int size;
+        private final Map<Long, Integer> slotById;
+        private final Map<Integer, Bucket> buckets = new HashMap<>();
+
+        private Grid(int capacity) {
+            ids = new long[capacity];
+            groups = new byte[capacity];
+            latitudes = new float[capacity];
+            longitudes = new float[capacity];
+            cells = new int[capacity];
+            positions = new int[capacity];
+            slotById = new HashMap<>(capacity * 2);
+        }
+
+        private void put(Long id, int group, double latitude, double longitude) {
+            if (group < 0) {
+                return;
+            }
+            remove(id);
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                groups = Arrays.copyOf(groups, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+                cells = Arrays.copyOf(cells, capacity);
+                positions = Arrays.copyOf(positions, capacity);
+            }
+            int slot = size++;
+            ids[slot] = id;
+            groups[slot] = (byte) group;
+            latitudes[slot] = (float) latitude;
+            longitudes[slot] = (float) longitude;
+            cells[slot] = cellKey(latCell(latitude), lonCell(longitude), group);
+            slotById.put(id, slot);
+
+            Bucket bucket = buckets.computeIfAbsent(cells[slot], key -> new Bucket());
+            if (bucket.size == bucket.slots.length) {
+                bucket.slots = Arrays.copyOf(bucket.slots, bucket.size * 2);
+            }
+            positions[slot] = bucket.size;
+            bucket.slots[bucket.size++] = slot;
+        }
+
+        private void remove(Long id) {
+            Integer boxed = slotById.remove(id);
+            if (boxed == null) {
+                return;
+            }
+            int slot = boxed;
+            Bucket bucket = buckets.get(cells[slot]);
+            int position = positions[slot];
+            int movedInBucket = bucket.slots[--bucket.size];
+            bucket.slots[position] = movedInBucket;
+            positions[movedInBucket] = position;
+            if (bucket.size == 0) {
+                buckets.remove(cells[slot]);
+            }
+
+            int last = --size;
+            if (slot != last) {
+                ids[slot] = ids[last];
+                groups[slot] = groups[last];
+                latitudes[slot] = latitudes[last];
+                longitudes[slot] = longitudes[last];
+                cells[slot] = cells[last];
+                positions[slot] = positions[last];
+                buckets.get(cells[slot]).slots[positions[slot]] = slot;
+                slotById.put(ids[slot], slot);
+            }
+        }
+
+        private List<NearbyDonor> nearest(int donorMask, double latitude, double longitude,
+                                          int limit, double maxDistanceKm) {
+            double[] heapDistance = new double[limit];
+            int[] heapSlot = new int[limit];
+            int count = 0;
+
+            int centerLat = latCell(latitude);
+            int centerLon = lonCell(longitude);
+
+            for (int ring = 0; ring <= MAX_RING; ring++) {
+                // Cells narrow towards the poles, so bound the ring by its most poleward latitude.
+                double poleward = Math.min(89.0, Math.abs(latitude) + ring * CELL_DEGREES);
+                double ringLowerBoundKm = Math.max(0, ring - 1) * CELL_DEGREES * KM_PER_DEGREE
+                        * Math.cos(Math.toRadians(poleward));
+                if (ringLowerBoundKm > maxDistanceKm || (count == limit && ringLowerBoundKm > heapDistance[0])) {
+                    break;
+                }
+                for (int dLat = -ring; dLat <= ring; dLat++) {
+                    int step = Math.abs(dLat) == ring ? 1 : 2 * ring;
+                    for (int dLon = -ring; dLon <= ring; dLon += step) {
+                        for (int group = 0; group < BloodCompatibility.GROUP_COUNT; group++) {
+                            if ((donorMask & (1 << group)) == 0) {
+                                continue;
+                            }
+                            Bucket bucket = buckets.get(cellKey(centerLat + dLat, centerLon + dLon, group));
+                            if (bucket == null) {
+                                continue;
+                            }
+                            for (int i = 0; i < bucket.size; i++) {
+                                int slot = bucket.slots[i];
+                                double distance = haversineKm(latitude, longitude, latitudes[slot], longitudes[slot]);
+                                if (distance > maxDistanceKm) {
+                                    continue;
+                                }
+                                if (count < limit) {
+                                    heapDistance[count] = distance;
+                                    heapSlot[count] = slot;
+                                    siftUp(heapDistance, heapSlot, count++);
+                                } else if (distance < heapDistance[0]) {
+                                    heapDistance[0] = distance;
+                                    heapSlot[0] = slot;
+                                    siftDown(heapDistance, heapSlot, count);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+
+            NearbyDonor[] result = new NearbyDonor[count];
+            for (int n = count; n > 0; n--) {
+                int slot = heapSlot[0];
+                result[n - 1] = new NearbyDonor(ids[slot], BloodCompatibility.GROUPS[groups[slot]], heapDistance[0]);
+                heapDistance[0] = heapDistance[n - 1];
+                heapSlot[0] = heapSlot[n - 1];
+                siftDown(heapDistance, heapSlot, n - 1);
+            }
+            return new ArrayList<>(Arrays.asList(result));
+        }
+
+        private static void siftUp(double[] distance, int[] slot, int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (distance[parent] >= distance[index]) {
+                    return;
+                }
+                swap(distance, slot, parent, index);
+                index = parent;
+            }
+        }
+
+        private static void siftDown(double[] distance, int[] slot, int size) {
+            int index = 0;
+            while (true) {
+                int largest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && distance[left] > distance[largest]) {
+                    largest = left;
+                }
+                if (right < size && distance[right] > distance[largest]) {
+                    largest = right;
+                }
+                if (largest == index) {
+                    return;
+                }
+                swap(distance, slot, index, largest);
+                index = largest;
+            }
+        }
+
+        private static void swap(double[] distance, int[] slot, int a, int b) {
+            double d = distance[a];
+            distance[a] = distance[b];
+            distance[b] = d;
+            int s = slot[a];
+            slot[a] = slot[b];
+            slot[b] = s;
+        }
+    }
+}
@@ -1,22 +1,46 @@
 package com.bloodbank.service;
 
+import com.bloodbank.dto.CursorPage;
+import com.bloodbank.dto.NearbyDonor;
 import com.bloodbank.model.Donor;
 import com.bloodbank.repository.DonorRepository;
+import com.bloodbank.repository.KeysetPagination;
+import com.bloodbank.repository.KeysetPagination.SortField;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 public class DonorService {
+    private static final Map<String, SortField<Donor, ?>> SORT_FIELDS = Map.of(
+            "id", new SortField<>("id", Donor::getId, Long::valueOf, Donor::getId),
+            "bloodGroup", new SortField<>("bloodGroup", Donor::getBloodGroup, Function.identity(), Donor::getId));
+
     @Autowired
     private DonorRepository donorRepository;
 
+    @Autowired
+    private DonorSearchIndex donorSearchIndex;
+
+    @Transactional(readOnly = true)
     public List<Donor> getAllDonors() {
         return donorRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<Donor> getDonorsPage(String cursor, int limit, String sort, boolean descending, String bloodGroup) {
+        Specification<Donor> filter = Specification.<Donor>where(null)
+                .and(KeysetPagination.attributeEquals("bloodGroup", bloodGroup));
+        return KeysetPagination.fetch(donorRepository, filter, KeysetPagination.sortField(SORT_FIELDS, sort),
+                descending, cursor, limit, "user");
+    }
+
     public Optional<Donor> getDonorById(Long id) {
         return donorRepository.findById(id);
     }
@@ -34,11 +58,23 @@ public class DonorService {
         if (donorDetails.getProfilePic() != null) {
             donor.setProfilePic(donorDetails.getProfilePic());
         }
-        return donorRepository.save(donor);
+        if (donorDetails.getLatitude() != null && donorDetails.getLongitude() != null) {
+            donor.setLatitude(donorDetails.getLatitude());
+            donor.setLongitude(donorDetails.getLongitude());
+        }
+        Donor saved = donorRepository.save(donor);
+        donorSearchIndex.upsert(saved);
+        return saved;
     }
 
     public void deleteDonor(Long id) {
         donorRepository.deleteById(id);
+        donorSearchIndex.remove(id);
+    }
+
+    public List<NearbyDonor> findNearbyCompatibleDonors(String bloodGroup, double latitude, double longitude,
+                                                       int limit, double radiusKm) {
+        return donorSearchIndex.findNearest(bloodGroup, latitude, longitude, limit, radiusKm);
     }
 }
 
@@ -0,0 +1,90 @@
+package com.bloodbank.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Retires expired blood unit lots. Every tick it advances the inventory's expiry wheel and expires
+ * the lots that came due, one transaction per blood group and batch, each with one status update
+ * and one stock update. The same thread periodically reloads the inventory from the table.
+ */
+@Component
+public class ExpirySweeper {
+    private static final Logger logger = LoggerFactory.getLogger(ExpirySweeper.class);
+
+    @Autowired
+    private BloodUnitInventory inventory;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private TransactionRetrier transactionRetrier;
+
+    @Value("${inventory.expiry.tick-ms:60000}")
+    private long tickMs;
+
+    @Value("${inventory.expiry.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventory.reload-interval-ms:300000}")
+    private long reloadIntervalMs;
+
+    private ScheduledExecutorService sweeper;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        inventory.reloadAll();
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-expiry-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, 0, tickMs, TimeUnit.MILLISECONDS);
+        sweeper.scheduleWithFixedDelay(inventory::reloadAll, reloadIntervalMs, reloadIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    public void sweep() {
+        Map<String, List<Long>> due = inventory.dueForExpiry(System.currentTimeMillis()).stream()
+                .collect(Collectors.groupingBy(ExpiryWheel.Entry::bloodGroup, TreeMap::new,
+                        Collectors.mapping(ExpiryWheel.Entry::lotId, Collectors.toList())));
+        int expired = 0;
+        for (Map.Entry<String, List<Long>> group : due.entrySet()) {
+            String bloodGroup = group.getKey();
+            List<Long> lotIds = group.getValue();
+            for (int from = 0; from < lotIds.size(); from += batchSize) {
+                List<Long> batch = lotIds.subList(from, Math.min(from + batchSize, lotIds.size()));
+                try {
+                    expired += transactionRetrier.execute(() -> stockService.expireUnits(bloodGroup, batch));
+                } catch (RuntimeException e) {
+                    logger.error("Failed to expire {} lots of {}: {}", batch.size(), bloodGroup, e.getMessage());
+                    inventory.retryExpiry(bloodGroup, batch);
+                }
+            }
+        }
+        if (expired > 0) {
+            logger.info("Expired {} units of blood", expired);
+        }
+    }
+}
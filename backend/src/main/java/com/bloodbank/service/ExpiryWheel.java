@@ -0,0 +1,113 @@
+package com.bloodbank.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hashed timing wheel of lot expiry deadlines, used by {@link BloodUnitInventory}.
+ * <p>
+ * Each slot covers one tick. A deadline further away than one turn of the wheel waits in its slot
+ * and is passed over until the cursor comes round on the right turn, so scheduling and cancelling
+ * are O(1) and advancing only visits the slots the cursor moves across. A lot is scheduled at most
+ * once; cancelled entries are dropped the next time their slot is visited.
+ */
+final class ExpiryWheel {
+    private final long tickMs;
+    private final List<List<Entry>> slots;
+    private final int mask;
+    private final Map<Long, Entry> scheduled = new HashMap<>();
+    private final List<Entry> overdue = new ArrayList<>();
+    private long cursor;
+
+    ExpiryWheel(long tickMs, int size, long nowMs) {
+        int slotCount = Integer.highestOneBit(Math.max(size - 1, 1)) << 1;
+        this.tickMs = tickMs;
+        this.mask = slotCount - 1;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.cursor = nowMs / tickMs;
+    }
+
+    /**
+     * Schedules a lot to come due on the first tick at or after {@code deadlineMs}; a deadline in
+     * the past comes due on the next advance.
+     */
+    synchronized void schedule(long lotId, String bloodGroup, long deadlineMs) {
+        if (scheduled.containsKey(lotId)) {
+            return;
+        }
+        long tick = Math.floorDiv(deadlineMs + tickMs - 1, tickMs);
+        Entry entry = new Entry(lotId, bloodGroup, tick);
+        // The cursor has already passed the slot of an overdue tick.
+        (tick < cursor ? overdue : slots.get((int) (tick & mask))).add(entry);
+        scheduled.put(lotId, entry);
+    }
+
+    synchronized void cancel(long lotId) {
+        Entry entry = scheduled.remove(lotId);
+        if (entry != null) {
+            entry.cancelled = true;
+        }
+    }
+
+    synchronized int size() {
+        return scheduled.size();
+    }
+
+    /**
+     * Moves the cursor up to {@code nowMs} and removes and returns every entry that has come due.
+     */
+    synchronized List<Entry> advance(long nowMs) {
+        long now = nowMs / tickMs;
+        List<Entry> due = new ArrayList<>();
+        for (Entry entry : overdue) {
+            if (!entry.cancelled) {
+                scheduled.remove(entry.lotId);
+                due.add(entry);
+            }
+        }
+        overdue.clear();
+        // After a pause longer than one turn every slot is visited once.
+        for (long tick = Math.max(cursor, now - mask); tick <= now; tick++) {
+            Iterator<Entry> entries = slots.get((int) (tick & mask)).iterator();
+            while (entries.hasNext()) {
+                Entry entry = entries.next();
+                if (entry.cancelled) {
+                    entries.remove();
+                } else if (entry.tick <= now) {
+                    entries.remove();
+                    scheduled.remove(entry.lotId);
+                    due.add(entry);
+                }
+            }
+        }
+        cursor = Math.max(cursor, now + 1);
+        return due;
+    }
+
+    static final class Entry {
+        private final long lotId;
+        private final String bloodGroup;
+        private final long tick;
+        private boolean cancelled;
+
+        private Entry(long lotId, String bloodGroup, long tick) {
+            this.lotId = lotId;
+            this.bloodGroup = bloodGroup;
+            this.tick = tick;
+        }
+
+        long lotId() {
+            return lotId;
+        }
+
+        String bloodGroup() {
+            return bloodGroup;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.bloodbank.service;
+
+import com.bloodbank.config.BulkheadDataSource;
+import com.bloodbank.dto.DonationExportRow;
+import com.bloodbank.dto.RequestExportRow;
+import com.bloodbank.repository.BloodDonateRepository;
+import com.bloodbank.repository.BloodRequestRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes full-table exports of donations and requests as NDJSON or CSV.
+ * <p>
+ * Rows are read through forward-only streaming queries that select constructor projections, so
+ * nothing is added to the persistence context and each row can be collected as soon as it has
+ * been written. Memory use therefore does not depend on the size of the table.
+ */
+@Service
+public class ExportService {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final List<String> DONATION_COLUMNS = List.of(
+            "id", "donorId", "donorUsername", "bloodGroup", "unit", "age", "disease", "status", "date");
+
+    private static final List<String> REQUEST_COLUMNS = List.of(
+            "id", "patientId", "donorId", "patientName", "patientAge", "reason", "bloodGroup", "unit", "status", "date");
+
+    @Autowired
+    private BloodDonateRepository bloodDonateRepository;
+
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    public enum Format {
+        NDJSON,
+        CSV
+    }
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void writeDonations(Format format, OutputStream out) throws IOException {
+        export(() -> {
+            try (Stream<DonationExportRow> rows = bloodDonateRepository.streamExportRows()) {
+                write(format, out, rows, DONATION_COLUMNS, row -> new Object[]{
+                        row.getId(), row.getDonorId(), row.getDonorUsername(), row.getBloodGroup(), row.getUnit(),
+                        row.getAge(), row.getDisease(), row.getStatus(), row.getDate()});
+            }
+        });
+    }
+
+    public void writeRequests(Format format, OutputStream out) throws IOException {
+        export(() -> {
+            try (Stream<RequestExportRow> rows = bloodRequestRepository.streamExportRows()) {
+                write(format, out, rows, REQUEST_COLUMNS, row -> new Object[]{
+                        row.getId(), row.getPatientId(), row.getDonorId(), row.getPatientName(), row.getPatientAge(),
+                        row.getReason(), row.getBloodGroup(), row.getUnit(), row.getStatus(), row.getDate()});
+            }
+        });
+    }
+
+    /**
+     * Runs an export in a read-only transaction whose connection is counted against the database
+     * bulkhead's streaming permits, not the limit shared with requests. The transaction is started
+     * inside the streaming scope, so the connection is borrowed there whenever it is acquired.
+     */
+    private void export(ExportWork work) throws IOException {
+        try {
+            BulkheadDataSource.streaming(() -> readOnlyTransaction.execute(status -> {
+                try {
+                    work.run();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private interface ExportWork {
+        void run() throws IOException;
+    }
+
+    private <T> void write(Format format, OutputStream target, Stream<T> rows, List<String> columns,
+                           Function<T, Object[]> csvValues) throws IOException {
+        OutputStream out = new BufferedOutputStream(target, BUFFER_SIZE);
+        ObjectWriter json = objectMapper.writer();
+        if (format == Format.CSV) {
+            out.write(csvLine(columns.toArray()));
+        }
+        Iterator<T> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (format == Format.CSV) {
+                out.write(csvLine(csvValues.apply(row)));
+            } else {
+                out.write(json.writeValueAsBytes(row));
+                out.write('\n');
+            }
+        }
+        out.flush();
+    }
+
+    private static byte[] csvLine(Object[] values) {
+        StringBuilder line = new StringBuilder(128);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            String text = value.toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                line.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(text);
+            }
+        }
+        return line.append("\r\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,182 @@
+package com.bloodbank.service;
+
+import com.bloodbank.security.services.UserDetailsImpl;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Makes create and approve calls safe to retry. A call carrying an {@code Idempotency-Key} runs
+ * once per user, operation and key; a retry within the TTL gets the stored response back, marked
+ * with {@code Idempotent-Replayed}, without reaching the services, and a duplicate that arrives
+ * while the first call is still running waits for its response instead of running in parallel.
+ * A retry must be the same request: each entry keeps a SHA-256 hash of the query string and the
+ * raw body (buffered by {@link com.bloodbank.config.IdempotencyBodyAdvice}), and reusing a key for
+ * a different request is answered with 422 instead of a replay.
+ * <p>
+ * Responses are kept whatever their status, so a rejected call is not retried under the same key.
+ * A call that fails with an exception is forgotten, so the client can retry it. The store is
+ * bounded; when it fills up, the oldest completed entries are dropped first (they are also the
+ * first to expire), never calls that are still running. Keys are only known to the instance that
+ * served the call.
+ */
+@Service
+public class IdempotencyService {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String BODY_HASH_ATTRIBUTE = IdempotencyService.class.getName() + ".bodyHash";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Value("${idempotency.ttl-ms:86400000}")
+    private long ttlMs;
+
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    // Insertion order is completion order to within the duration of a call, so the eldest entries
+    // are the first to expire.
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public CompletableFuture<ResponseEntity<?>> execute(String key, String operation, Supplier<ResponseEntity<?>> call) {
+        return executeAsync(key, operation, () -> CompletableFuture.completedFuture(call.get()));
+    }
+
+    public CompletableFuture<ResponseEntity<?>> executeAsync(String key, String operation,
+                                                             Supplier<CompletableFuture<ResponseEntity<?>>> call) {
+        if (key == null || key.isBlank()) {
+            return invoke(call);
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters"));
+        }
+        String scopedKey = currentUserId() + " " + operation + " " + key;
+        Entry entry = new Entry(currentRequestHash());
+        Entry existing;
+        lock.lock();
+        try {
+            existing = entries.get(scopedKey);
+            if (existing != null && existing.isExpired(System.nanoTime())) {
+                entries.remove(scopedKey);
+                existing = null;
+            }
+            if (existing == null) {
+                entries.put(scopedKey, entry);
+                evictIfFull();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (existing != null) {
+            if (!MessageDigest.isEqual(existing.fingerprint, entry.fingerprint)) {
+                return CompletableFuture.completedFuture(ResponseEntity.unprocessableEntity()
+                        .body(HEADER + " has already been used for a different request"));
+            }
+            return existing.response.thenApply(IdempotencyService::replayed);
+        }
+
+        invoke(call).whenComplete((response, failure) -> {
+            if (failure != null) {
+                forget(scopedKey, entry);
+                entry.response.completeExceptionally(failure);
+            } else {
+                entry.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMs);
+                entry.response.complete(response);
+            }
+        });
+        return entry.response.copy();
+    }
+
+    private static CompletableFuture<ResponseEntity<?>> invoke(Supplier<CompletableFuture<ResponseEntity<?>>> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void forget(String scopedKey, Entry entry) {
+        lock.lock();
+        try {
+            entries.remove(scopedKey, entry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called with the lock held.
+    private void evictIfFull() {
+        Iterator<Entry> eldestFirst = entries.values().iterator();
+        while (entries.size() > maxEntries && eldestFirst.hasNext()) {
+            if (eldestFirst.next().response.isDone()) {
+                eldestFirst.remove();
+            }
+        }
+    }
+
+    private static byte[] currentRequestHash() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            if (request.getQueryString() != null) {
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            if (request.getAttribute(BODY_HASH_ATTRIBUTE) instanceof byte[] bodyHash) {
+                digest.update(bodyHash);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static ResponseEntity<?> replayed(ResponseEntity<?> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user
+                ? user.getId() : null;
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+        private final byte[] fingerprint;
+        private volatile long expiresAtNanos = Long.MAX_VALUE;
+
+        private Entry(byte[] fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        private boolean isExpired(long now) {
+            return response.isDone() && expiresAtNanos - now <= 0;
+        }
+    }
+}
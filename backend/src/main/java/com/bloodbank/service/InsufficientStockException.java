@@ -0,0 +1,14 @@
+package com.bloodbank.service;
+
+public class InsufficientStockException extends DecisionConflictException {
+    private final String bloodGroup;
+
+    public InsufficientStockException(String bloodGroup, String message) {
+        super(message);
+        this.bloodGroup = bloodGroup;
+    }
+
+    public String getBloodGroup() {
+        return bloodGroup;
+    }
+}
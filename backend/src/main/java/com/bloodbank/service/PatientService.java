@@ -1,22 +1,42 @@
 package com.bloodbank.service;
 
+import com.bloodbank.dto.CursorPage;
 import com.bloodbank.model.Patient;
+import com.bloodbank.repository.KeysetPagination;
+import com.bloodbank.repository.KeysetPagination.SortField;
 import com.bloodbank.repository.PatientRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 public class PatientService {
+    private static final Map<String, SortField<Patient, ?>> SORT_FIELDS = Map.of(
+            "id", new SortField<>("id", Patient::getId, Long::valueOf, Patient::getId),
+            "bloodGroup", new SortField<>("bloodGroup", Patient::getBloodGroup, Function.identity(), Patient::getId));
+
     @Autowired
     private PatientRepository patientRepository;
 
+    @Transactional(readOnly = true)
     public List<Patient> getAllPatients() {
         return patientRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<Patient> getPatientsPage(String cursor, int limit, String sort, boolean descending, String bloodGroup) {
+        Specification<Patient> filter = Specification.<Patient>where(null)
+                .and(KeysetPagination.attributeEquals("bloodGroup", bloodGroup));
+        return KeysetPagination.fetch(patientRepository, filter, KeysetPagination.sortField(SORT_FIELDS, sort),
+                descending, cursor, limit, "user");
+    }
+
     public Optional<Patient> getPatientById(Long id) {
         return patientRepository.findById(id);
     }
@@ -0,0 +1,59 @@
+package com.bloodbank.service;
+
+import com.bloodbank.config.AdaptiveConcurrencyLimiter;
+import com.bloodbank.config.BulkheadDataSource;
+import com.bloodbank.config.VirtualThreadPinningMonitor;
+import com.bloodbank.dto.RuntimeStatus;
+import com.bloodbank.security.services.PasswordHashingExecutor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Service
+public class RuntimeStatusService {
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    public RuntimeStatus getStatus() {
+        RuntimeStatus status = new RuntimeStatus();
+        status.setVirtualThreads(virtualThreads && Runtime.version().feature() >= 21);
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        if (monitor != null) {
+            status.setPinnedEvents(monitor.getPinnedEvents());
+        }
+        AdaptiveConcurrencyLimiter limiter = bulkheadLimiter();
+        if (limiter != null) {
+            status.setBulkheadEnabled(true);
+            status.setBulkheadLimit(limiter.getLimit());
+            status.setBulkheadInFlight(limiter.getInFlight());
+            status.setBulkheadWaiting(limiter.getWaiting());
+            status.setBulkheadRejected(limiter.getRejected());
+        }
+        status.setHashingQueueDepth(passwordHashingExecutor.getQueueDepth());
+        status.setHashingActive(passwordHashingExecutor.getActiveCount());
+        return status;
+    }
+
+    public AdaptiveConcurrencyLimiter bulkheadLimiter() {
+        try {
+            return dataSource.isWrapperFor(BulkheadDataSource.class)
+                    ? dataSource.unwrap(BulkheadDataSource.class).getLimiter()
+                    : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
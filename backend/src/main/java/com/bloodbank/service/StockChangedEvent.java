@@ -0,0 +1,13 @@
+package com.bloodbank.service;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published by {@link StockService} once a stock mutation has committed and the snapshot has been
+ * invalidated.
+ */
+public class StockChangedEvent extends ApplicationEvent {
+    public StockChangedEvent(Object source) {
+        super(source);
+    }
+}
@@ -0,0 +1,8 @@
+package com.bloodbank.service;
+
+/**
+ * One group's row of the stock table as cached by {@link StockService}. Immutable, so a snapshot
+ * can be shared between readers without copying.
+ */
+public record StockLevel(Long id, String bloodGroup, int unit) {
+}
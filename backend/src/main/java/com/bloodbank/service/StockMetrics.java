@@ -0,0 +1,28 @@
+package com.bloodbank.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the units in stock per blood group as {@code bloodbank.stock.units}. Values come from
+ * the stock snapshot, so a scrape costs at most one version check against the database.
+ */
+@Component
+public class StockMetrics implements MeterBinder {
+    @Autowired
+    private StockService stockService;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String bloodGroup : BloodCompatibility.GROUPS) {
+            Gauge.builder("bloodbank.stock.units", stockService,
+                            service -> service.getStockByBloodGroup(bloodGroup).map(StockLevel::unit).orElse(0))
+                    .description("Units of blood in stock")
+                    .tag("bloodGroup", bloodGroup)
+                    .register(registry);
+        }
+    }
+}
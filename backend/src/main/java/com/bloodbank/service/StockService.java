@@ -1,44 +1,343 @@
 package com.bloodbank.service;
 
+import com.bloodbank.dto.AvailabilityResponse;
+import com.bloodbank.model.BloodDonate;
+import com.bloodbank.model.BloodUnit;
 import com.bloodbank.model.Stock;
 import com.bloodbank.repository.StockRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class StockService {
     @Autowired
     private StockRepository stockRepository;
 
-    public List<Stock> getAllStocks() {
-        return stockRepository.findAll();
+    @Autowired
+    private TransactionRetrier transactionRetrier;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BloodUnitInventory inventory;
+
+    @Value("${stock.snapshot.max-staleness-ms:1000}")
+    private long maxStalenessMs;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private final AtomicReference<StockSnapshot> snapshot = new AtomicReference<>();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Object reloadLock = new Object();
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    public List<StockLevel> getAllStocks() {
+        return currentSnapshot().stocks();
+    }
+
+    public Optional<StockLevel> getStockByBloodGroup(String bloodGroup) {
+        return Optional.ofNullable(currentSnapshot().byBloodGroup().get(bloodGroup));
     }
 
-    public Optional<Stock> getStockByBloodGroup(String bloodGroup) {
-        return stockRepository.findByBloodGroup(bloodGroup);
+    @Transactional(readOnly = true)
+    public Map<String, Integer> currentLevels(Collection<String> bloodGroups) {
+        return stockRepository.findByBloodGroupIn(bloodGroups).stream()
+                .collect(Collectors.toMap(Stock::getBloodGroup, Stock::getUnit));
     }
 
+    /**
+     * Levels of the given groups less the units of expired lots not yet retired, which is what an
+     * allocation can actually draw.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Integer> usableLevels(Collection<String> bloodGroups) {
+        Map<String, Integer> levels = new HashMap<>(currentLevels(bloodGroups));
+        inventory.unsweptExpiredUnits(levels.keySet()).forEach((bloodGroup, expired) ->
+                levels.computeIfPresent(bloodGroup, (group, level) -> Math.max(0, level - expired)));
+        return levels;
+    }
+
+    public AvailabilityResponse checkAvailability(String bloodGroup, int units, boolean substitute) {
+        if (units <= 0) {
+            throw new IllegalArgumentException("units must be a positive number");
+        }
+        int recipient = BloodCompatibility.indexOf(bloodGroup);
+        if (recipient < 0) {
+            throw new RuntimeException("Unknown blood group: " + bloodGroup);
+        }
+        int[] allocation = new int[BloodCompatibility.GROUP_COUNT];
+        int shortfall = BloodCompatibility.plan(recipient, units, currentSnapshot().levels(), substitute, allocation);
+
+        Map<String, Integer> sources = new LinkedHashMap<>();
+        for (int donor = 0; donor < allocation.length; donor++) {
+            if (allocation[donor] > 0) {
+                sources.put(BloodCompatibility.GROUPS[donor], allocation[donor]);
+            }
+        }
+        return new AvailabilityResponse(bloodGroup, units, shortfall == 0, shortfall, sources);
+    }
+
+    /**
+     * Sets a group's level by hand. The level is the total of the group's lots, so it is raised by
+     * receiving a lot collected today and lowered by drawing down the lots closest to expiry.
+     */
     public Stock updateStock(String bloodGroup, Integer unit) {
-        Stock stock = stockRepository.findByBloodGroup(bloodGroup)
-                .orElse(new Stock());
-        stock.setBloodGroup(bloodGroup);
-        stock.setUnit(unit);
-        return stockRepository.save(stock);
+        Stock saved = transactionRetrier.execute(() -> {
+            Stock stock = stockRepository.lockByBloodGroup(bloodGroup)
+                    .orElseGet(() -> stockRepository.saveAndFlush(new Stock(null, bloodGroup, 0, 0L)));
+            int delta = unit - stock.getUnit();
+            if (delta > 0) {
+                stockRepository.replenish(bloodGroup, delta);
+                inventory.receive(List.of(inventory.newLot(bloodGroup, delta, null, LocalDate.now())));
+            } else if (delta < 0) {
+                // The row is locked and the new level is not negative, so this only fails if the row moved anyway.
+                if (stockRepository.consumeIfAvailable(bloodGroup, -delta) == 0) {
+                    throw new OptimisticLockingFailureException("Stock for " + bloodGroup + " changed during update");
+                }
+                inventory.allocate(bloodGroup, -delta);
+            }
+            return stockRepository.findByBloodGroup(bloodGroup)
+                    .orElseThrow(() -> new DecisionConflictException("Stock not found"));
+        });
+        invalidateSnapshot();
+        return saved;
+    }
+
+    @Transactional
+    public void consumeUnits(String bloodGroup, int units) {
+        if (stockRepository.consumeIfAvailable(bloodGroup, units) == 0) {
+            Stock stock = stockRepository.findByBloodGroup(bloodGroup)
+                    .orElseThrow(() -> new DecisionConflictException("Stock not found"));
+            throw new InsufficientStockException(bloodGroup,
+                    "Insufficient blood stock. Only " + stock.getUnit() + " units available.");
+        }
+        inventory.allocate(bloodGroup, units);
+        invalidateSnapshotAfterCommit();
+    }
+
+    @Transactional
+    public void consumeCompatibleUnits(String bloodGroup, int units) {
+        int recipient = BloodCompatibility.indexOf(bloodGroup);
+        if (recipient < 0) {
+            throw new DecisionConflictException("Stock not found");
+        }
+        int[] levels = new int[BloodCompatibility.GROUP_COUNT];
+        for (Stock stock : stockRepository.findAll()) {
+            int index = BloodCompatibility.indexOf(stock.getBloodGroup());
+            if (index >= 0) {
+                levels[index] = stock.getUnit();
+            }
+        }
+        int[] allocation = new int[BloodCompatibility.GROUP_COUNT];
+        int shortfall = BloodCompatibility.plan(recipient, units, levels, true, allocation);
+        if (shortfall > 0) {
+            throw new InsufficientStockException(bloodGroup, "Insufficient compatible blood stock. Only "
+                    + (units - shortfall) + " units available.");
+        }
+        for (int donor = 0; donor < allocation.length; donor++) {
+            if (allocation[donor] == 0) {
+                continue;
+            }
+            if (stockRepository.consumeIfAvailable(BloodCompatibility.GROUPS[donor], allocation[donor]) == 0) {
+                throw new OptimisticLockingFailureException("Stock for " + BloodCompatibility.GROUPS[donor]
+                        + " changed during approval");
+            }
+            inventory.allocate(BloodCompatibility.GROUPS[donor], allocation[donor]);
+        }
+        invalidateSnapshotAfterCommit();
+    }
+
+    /**
+     * Adds approved donations to stock, each as a lot collected on its donation date. Groups are
+     * updated in a fixed order so that concurrent receipts lock their stock rows consistently.
+     */
+    @Transactional
+    public void receiveDonations(Collection<BloodDonate> donations) {
+        Map<String, List<BloodDonate>> byBloodGroup = donations.stream()
+                .collect(Collectors.groupingBy(BloodDonate::getBloodGroup, TreeMap::new, Collectors.toList()));
+        List<BloodUnit> lots = new ArrayList<>(donations.size());
+        byBloodGroup.forEach((bloodGroup, received) -> {
+            if (stockRepository.replenish(bloodGroup, received.stream().mapToInt(BloodDonate::getUnit).sum()) == 0) {
+                throw new DecisionConflictException("Stock not found");
+            }
+            received.forEach(donation ->
+                    lots.add(inventory.newLot(bloodGroup, donation.getUnit(), donation.getId(), donation.getDate())));
+        });
+        inventory.receive(lots);
+        invalidateSnapshotAfterCommit();
     }
 
+    /**
+     * Takes {@code units} off a group's level and draws them from its lots, earliest expiry first.
+     * Returns false without changes when the level, or the unexpired lots behind it, are too low.
+     */
+    @Transactional
+    public boolean allocateUnits(String bloodGroup, int units) {
+        if (stockRepository.consumeIfAvailable(bloodGroup, units) == 0) {
+            return false;
+        }
+        if (!inventory.tryAllocate(bloodGroup, units)) {
+            // The level still counts expired lots the sweeper has not reached yet.
+            stockRepository.replenish(bloodGroup, units);
+            return false;
+        }
+        invalidateSnapshotAfterCommit();
+        return true;
+    }
+
+    /**
+     * Expires the given lots of a group that are past their expiry date and takes the units they
+     * held off the group's level. Returns the units expired.
+     */
+    @Transactional
+    public int expireUnits(String bloodGroup, Collection<Long> lotIds) {
+        if (stockRepository.lockByBloodGroup(bloodGroup).isEmpty()) {
+            return 0;
+        }
+        int expired = inventory.expire(bloodGroup, lotIds);
+        if (expired > 0) {
+            if (stockRepository.adjustIfNonNegative(bloodGroup, -expired) == 0) {
+                throw new IllegalStateException("Stock for " + bloodGroup + " is below its expiring units");
+            }
+            invalidateSnapshotAfterCommit();
+        }
+        return expired;
+    }
+
+    /**
+     * Adds a zero-unit row for every blood group that has none, in one statement. Existing rows
+     * are left untouched.
+     */
+    @Transactional
     public void initializeBloodGroups() {
-        String[] bloodGroups = {"A+", "A-", "B+", "B-", "AB+", "AB-", "O+", "O-"};
-        for (String bg : bloodGroups) {
-            if (!stockRepository.findByBloodGroup(bg).isPresent()) {
-                Stock stock = new Stock();
-                stock.setBloodGroup(bg);
-                stock.setUnit(0);
-                stockRepository.save(stock);
+        List<Object[]> rows = Arrays.stream(BloodCompatibility.GROUPS)
+                .map(bloodGroup -> new Object[]{bloodGroup, 0, 0})
+                .toList();
+        jdbcTemplate.update("INSERT INTO stock (blood_group, unit, version) VALUES :rows " +
+                "ON DUPLICATE KEY UPDATE blood_group = blood_group", Map.of("rows", rows));
+        invalidateSnapshotAfterCommit();
+    }
+
+    public void invalidateSnapshot() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+        eventPublisher.publishEvent(new StockChangedEvent(this));
+    }
+
+    private void invalidateSnapshotAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateSnapshot();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidateSnapshot();
             }
+        });
+    }
+
+    /*
+     * Reads are served from an immutable copy of the stock table. Local mutations invalidate it
+     * straight away; writes made by other replicas are picked up by comparing the table's version
+     * stamp at most once per staleness window, so the common read path never reaches the database.
+     */
+    private StockSnapshot currentSnapshot() {
+        StockSnapshot current = snapshot.get();
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (reloadLock) {
+            StockSnapshot latest = snapshot.get();
+            if (isFresh(latest)) {
+                return latest;
+            }
+            long expectedGeneration = generation.get();
+            // A dropped snapshot means this instance just wrote, so reload from the primary; routine
+            // revalidation runs read-only and may be served by a replica.
+            StockSnapshot next = latest == null
+                    ? load(null, expectedGeneration)
+                    : readOnlyTransaction.execute(status -> load(latest, expectedGeneration));
+            if (generation.get() == expectedGeneration) {
+                snapshot.compareAndSet(latest, next);
+            }
+            return next;
         }
     }
-}
 
+    private StockSnapshot load(StockSnapshot previous, long expectedGeneration) {
+        long stamp = stockRepository.versionStamp();
+        return previous != null && previous.stamp() == stamp
+                ? previous.revalidated(System.nanoTime())
+                : StockSnapshot.of(stockRepository.findAll(), stamp, expectedGeneration);
+    }
+
+    private boolean isFresh(StockSnapshot candidate) {
+        return candidate != null
+                && candidate.generation() == generation.get()
+                && System.nanoTime() - candidate.checkedAtNanos() < TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+    }
+
+    private record StockSnapshot(List<StockLevel> stocks, Map<String, StockLevel> byBloodGroup, int[] levels,
+                                 long stamp, long generation, long checkedAtNanos) {
+        static StockSnapshot of(List<Stock> rows, long stamp, long generation) {
+            List<StockLevel> stocks = rows.stream()
+                    .map(s -> new StockLevel(s.getId(), s.getBloodGroup(), s.getUnit()))
+                    .toList();
+            Map<String, StockLevel> byBloodGroup = stocks.stream()
+                    .collect(Collectors.toUnmodifiableMap(StockLevel::bloodGroup, Function.identity()));
+            int[] levels = new int[BloodCompatibility.GROUP_COUNT];
+            for (StockLevel stock : stocks) {
+                int index = BloodCompatibility.indexOf(stock.bloodGroup());
+                if (index >= 0) {
+                    levels[index] = stock.unit();
+                }
+            }
+            return new StockSnapshot(stocks, byBloodGroup, levels, stamp, generation, System.nanoTime());
+        }
+
+        StockSnapshot revalidated(long nowNanos) {
+            return new StockSnapshot(stocks, byBloodGroup, levels, stamp, generation, nowNanos);
+        }
+    }
+}
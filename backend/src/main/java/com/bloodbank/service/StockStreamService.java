@@ -0,0 +1,207 @@
+package com.bloodbank.service;
+
+import com.bloodbank.dto.StockDelta;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes per-blood-group unit deltas to server-sent event subscribers.
+ * <p>
+ * Changes are derived by diffing the stock snapshot against the last published levels, triggered
+ * by local commits ({@link StockChangedEvent}) and by a periodic tick that picks up writes made by
+ * other replicas. Each subscriber holds at most one pending delta per blood group: while a slow
+ * client is still being written to, newer changes are merged into that entry instead of queued.
+ * A subscriber's initial snapshot goes through the same sender, ahead of any delta.
+ */
+@Service
+public class StockStreamService {
+    private static final Logger logger = LoggerFactory.getLogger(StockStreamService.class);
+
+    @Autowired
+    private StockService stockService;
+
+    @Value("${stock.stream.max-subscribers:500}")
+    private int maxSubscribers;
+
+    @Value("${stock.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${stock.stream.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${stock.stream.sender-threads:4}")
+    private int senderThreads;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, Integer> lastPublished = new HashMap<>();
+
+    private ScheduledExecutorService publisher;
+
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void start() {
+        publisher = Executors.newSingleThreadScheduledExecutor(daemonThreads("stock-stream-publisher"));
+        sender = Executors.newFixedThreadPool(senderThreads, daemonThreads("stock-stream-sender"));
+        publisher.scheduleWithFixedDelay(() -> publishChanges(null), pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        publisher.shutdownNow();
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Too many stock stream subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        publisher.execute(() -> publishChanges(subscriber));
+        return emitter;
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        if (!subscribers.isEmpty()) {
+            publisher.execute(() -> publishChanges(null));
+        }
+    }
+
+    /**
+     * Runs on the publisher thread only. A new subscriber is added here, after its snapshot has been
+     * queued on its own sender, so every delta it receives is relative to that snapshot and arrives
+     * after it.
+     */
+    private void publishChanges(Subscriber newcomer) {
+        if (subscribers.isEmpty() && newcomer == null) {
+            lastPublished.clear();
+            return;
+        }
+        try {
+            List<StockDelta> deltas = new ArrayList<>();
+            List<StockDelta> levels = new ArrayList<>();
+            for (StockLevel stock : stockService.getAllStocks()) {
+                Integer previous = lastPublished.put(stock.bloodGroup(), stock.unit());
+                if (previous != null && previous != stock.unit()) {
+                    deltas.add(new StockDelta(stock.bloodGroup(), stock.unit() - previous, stock.unit()));
+                }
+                levels.add(new StockDelta(stock.bloodGroup(), 0, stock.unit()));
+            }
+            if (!deltas.isEmpty()) {
+                subscribers.forEach(subscriber -> subscriber.offer(deltas));
+            }
+            if (newcomer != null) {
+                newcomer.offerSnapshot(levels);
+                subscribers.add(newcomer);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to publish stock changes: {}", e.getMessage());
+            if (newcomer != null) {
+                newcomer.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Map<String, StockDelta> pending = new LinkedHashMap<>();
+        private List<StockDelta> snapshot;
+        private boolean flushScheduled;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offerSnapshot(List<StockDelta> levels) {
+            synchronized (this) {
+                snapshot = levels;
+                if (flushScheduled) {
+                    return;
+                }
+                flushScheduled = true;
+            }
+            sender.execute(this::flush);
+        }
+
+        private void offer(List<StockDelta> deltas) {
+            synchronized (this) {
+                for (StockDelta delta : deltas) {
+                    pending.merge(delta.getBloodGroup(), delta, (older, newer) ->
+                            new StockDelta(newer.getBloodGroup(), older.getDelta() + newer.getDelta(), newer.getUnit()));
+                }
+                if (flushScheduled) {
+                    return;
+                }
+                flushScheduled = true;
+            }
+            sender.execute(this::flush);
+        }
+
+        private void flush() {
+            while (true) {
+                String name;
+                List<StockDelta> batch;
+                synchronized (this) {
+                    if (snapshot != null) {
+                        name = "snapshot";
+                        batch = snapshot;
+                        snapshot = null;
+                    } else if (pending.isEmpty()) {
+                        flushScheduled = false;
+                        return;
+                    } else {
+                        name = "stock";
+                        batch = new ArrayList<>(pending.values());
+                        pending.clear();
+                    }
+                }
+                try {
+                    emitter.send(SseEmitter.event().name(name).data(batch, MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    subscribers.remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+    }
+}
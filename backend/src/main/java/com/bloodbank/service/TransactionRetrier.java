@@ -0,0 +1,54 @@
+package com.bloodbank.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in its own transaction and retries it a bounded number of times when the
+ * database reports a concurrency failure (stale {@code @Version}, deadlock or lock timeout).
+ */
+@Component
+public class TransactionRetrier {
+    private static final Logger logger = LoggerFactory.getLogger(TransactionRetrier.class);
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${stock.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${stock.retry.backoff-ms:5}")
+    private long backoffMs;
+
+    public <T> T execute(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.debug("Concurrency failure on attempt {}/{}: {}", attempt, maxAttempts, e.getMessage());
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long ceiling = backoffMs << Math.min(attempt, 6);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying transaction", e);
+        }
+    }
+}
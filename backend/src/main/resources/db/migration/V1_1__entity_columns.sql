@@ -0,0 +1,9 @@
+-- Columns added to the entities after the baseline schema: optimistic versioning on stock, the
+-- per-user token version that revokes issued JWTs, and donor coordinates for the proximity index.
+
+alter table users add column token_version bigint not null default 0;
+
+alter table donors add column latitude double;
+alter table donors add column longitude double;
+
+alter table stock add column version bigint not null default 0;
@@ -0,0 +1,95 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update) from the baseline entities.
+-- Databases created that way are baselined at this version, so only later migrations run against
+-- them; columns added to the entities since then belong in V1_1 or later, never here.
+
+create table roles (
+    id bigint not null auto_increment,
+    name enum ('ROLE_ADMIN','ROLE_DONOR','ROLE_PATIENT') not null,
+    primary key (id),
+    constraint uk_roles_name unique (name)
+) engine=InnoDB;
+
+create table users (
+    id bigint not null auto_increment,
+    username varchar(255) not null,
+    password varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name varchar(255) not null,
+    email varchar(255) not null,
+    enabled bit not null,
+    primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+) engine=InnoDB;
+
+create table user_roles (
+    user_id bigint not null,
+    role_id bigint not null,
+    primary key (user_id, role_id),
+    constraint fk_user_roles_user foreign key (user_id) references users (id),
+    constraint fk_user_roles_role foreign key (role_id) references roles (id)
+) engine=InnoDB;
+
+create table donors (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    profile_pic varchar(255),
+    blood_group varchar(255) not null,
+    address varchar(255) not null,
+    mobile varchar(255) not null,
+    primary key (id),
+    constraint uk_donors_user unique (user_id),
+    constraint fk_donors_user foreign key (user_id) references users (id)
+) engine=InnoDB;
+
+create table patients (
+    id bigint not null auto_increment,
+    user_id bigint not null,
+    profile_pic varchar(255),
+    age integer not null,
+    blood_group varchar(255) not null,
+    disease varchar(255) not null,
+    doctor_name varchar(255) not null,
+    address varchar(255) not null,
+    mobile varchar(255) not null,
+    primary key (id),
+    constraint uk_patients_user unique (user_id),
+    constraint fk_patients_user foreign key (user_id) references users (id)
+) engine=InnoDB;
+
+create table stock (
+    id bigint not null auto_increment,
+    blood_group varchar(255) not null,
+    unit integer not null,
+    primary key (id),
+    constraint uk_stock_blood_group unique (blood_group)
+) engine=InnoDB;
+
+create table blood_donations (
+    id bigint not null auto_increment,
+    donor_id bigint not null,
+    disease varchar(255) not null,
+    age integer not null,
+    blood_group varchar(255) not null,
+    unit integer not null,
+    status enum ('PENDING','APPROVED','REJECTED') not null,
+    date date not null,
+    primary key (id),
+    constraint fk_blood_donations_donor foreign key (donor_id) references donors (id)
+) engine=InnoDB;
+
+create table blood_requests (
+    id bigint not null auto_increment,
+    patient_id bigint,
+    donor_id bigint,
+    patient_name varchar(255) not null,
+    patient_age integer not null,
+    reason varchar(500) not null,
+    blood_group varchar(255) not null,
+    unit integer not null,
+    status enum ('PENDING','APPROVED','REJECTED') not null,
+    date date not null,
+    primary key (id),
+    constraint fk_blood_requests_patient foreign key (patient_id) references patients (id),
+    constraint fk_blood_requests_donor foreign key (donor_id) references donors (id)
+) engine=InnoDB;
@@ -0,0 +1,26 @@
+-- Indexes for the status, date, blood group and owner filters used by the repositories and the
+-- keyset pages. Each ends in id so rows come back in the pages' tie-break order without a sort.
+-- The donor_id/patient_id indexes also take over from the ones InnoDB created for the foreign keys.
+
+-- findByStatus, pending queues paged by id
+create index idx_blood_requests_status_id on blood_requests (status, id);
+-- status-filtered pages sorted by date
+create index idx_blood_requests_status_date on blood_requests (status, date, id);
+-- status-filtered pages sorted by blood group, countByStatusAndBloodGroup
+create index idx_blood_requests_status_blood_group on blood_requests (status, blood_group, id);
+-- unfiltered pages sorted by date
+create index idx_blood_requests_date on blood_requests (date, id);
+-- findByPatient_User_Id, findByDonor_User_Id
+create index idx_blood_requests_patient on blood_requests (patient_id, id);
+create index idx_blood_requests_donor on blood_requests (donor_id, id);
+
+create index idx_blood_donations_status_id on blood_donations (status, id);
+create index idx_blood_donations_status_date on blood_donations (status, date, id);
+create index idx_blood_donations_status_blood_group on blood_donations (status, blood_group, id);
+create index idx_blood_donations_date on blood_donations (date, id);
+-- findByDonor_User_Id
+create index idx_blood_donations_donor on blood_donations (donor_id, id);
+
+-- blood-group filtered pages, countByBloodGroup
+create index idx_donors_blood_group on donors (blood_group, id);
+create index idx_patients_blood_group on patients (blood_group, id);
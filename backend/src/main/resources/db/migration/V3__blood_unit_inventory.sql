@@ -0,0 +1,24 @@
+-- Unit-level inventory: one lot per approved donation or manual stock receipt, drawn down
+-- first-expiry-first-out. stock.unit stays the per-group total of the available lots.
+create table blood_units (
+    id bigint not null auto_increment,
+    donation_id bigint,
+    blood_group varchar(255) not null,
+    units integer not null,
+    remaining integer not null,
+    collected_on date not null,
+    expires_on date not null,
+    status enum ('AVAILABLE','DEPLETED','EXPIRED') not null,
+    primary key (id),
+    constraint fk_blood_units_donation foreign key (donation_id) references blood_donations (id)
+) engine=InnoDB;
+
+-- per-group loads of the available lots in expiry order
+create index idx_blood_units_group_status_expiry on blood_units (blood_group, status, expires_on, id);
+
+-- Existing stock has no collection dates, so each group's units are carried over as one lot
+-- collected today with the default 42-day shelf life.
+insert into blood_units (donation_id, blood_group, units, remaining, collected_on, expires_on, status)
+select null, blood_group, unit, unit, current_date, timestampadd(day, 42, current_date), 'AVAILABLE'
+from stock
+where unit > 0;
@@ -0,0 +1,68 @@
+package com.bloodbank.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+    private static final int MAX_LIMIT = 10;
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, MAX_LIMIT, 0, 0, 2.0);
+
+    @Test
+    void steadyMixOfCheapAndExpensiveStatementsKeepsTheLimit() throws Exception {
+        saturate();
+        for (int i = 0; i < 5000; i++) {
+            limiter.sample(micros(i % 5 == 0 ? 40_000 : 300));
+        }
+        assertThat(limiter.getLimit()).isEqualTo(MAX_LIMIT);
+    }
+
+    @Test
+    void singleLongStatementDoesNotShrinkTheLimit() throws Exception {
+        saturate();
+        for (int i = 0; i < 2000; i++) {
+            limiter.sample(micros(500));
+        }
+        limiter.sample(TimeUnit.SECONDS.toNanos(30));
+        for (int i = 0; i < 2 * MAX_LIMIT; i++) {
+            limiter.sample(micros(500));
+        }
+        assertThat(limiter.getLimit()).isEqualTo(MAX_LIMIT);
+    }
+
+    @Test
+    void risingStatementLatencyShrinksTheLimit() throws Exception {
+        saturate();
+        for (int i = 0; i < 2000; i++) {
+            limiter.sample(micros(500));
+        }
+        for (int i = 0; i < 50; i++) {
+            limiter.sample(micros(5000));
+        }
+        assertThat(limiter.getLimit()).isLessThan(MAX_LIMIT);
+    }
+
+    @Test
+    void shrunkLimitRecoversOnceLatencySettles() throws Exception {
+        risingStatementLatencyShrinksTheLimit();
+        int shrunk = limiter.getLimit();
+        for (int i = 0; i < 5000; i++) {
+            limiter.sample(micros(5000));
+        }
+        assertThat(limiter.getLimit()).isGreaterThan(shrunk);
+    }
+
+    private void saturate() throws InterruptedException {
+        while (limiter.acquire()) {
+            // Hold every permit so the limiter counts as saturated.
+        }
+        assertThat(limiter.getInFlight()).isEqualTo(MAX_LIMIT);
+    }
+
+    private static long micros(long micros) {
+        return TimeUnit.MICROSECONDS.toNanos(micros);
+    }
+}
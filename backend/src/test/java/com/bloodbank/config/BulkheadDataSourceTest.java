@@ -0,0 +1,42 @@
+package com.bloodbank.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadDataSourceTest {
+    private BulkheadDataSource bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:bulkhead;DB_CLOSE_DELAY=-1");
+        bulkhead = new BulkheadDataSource(h2, new AdaptiveConcurrencyLimiter(1, 1, 0, 0, 2.0), 1, 0);
+    }
+
+    @Test
+    void streamingExportDoesNotTakeTheRequestPermit() throws Exception {
+        try (Connection export = BulkheadDataSource.streaming(bulkhead::getConnection);
+             Connection request = bulkhead.getConnection()) {
+            assertThat(bulkhead.getStreamingInFlight()).isEqualTo(1);
+            assertThat(bulkhead.getLimiter().getInFlight()).isEqualTo(1);
+        }
+        assertThat(bulkhead.getStreamingInFlight()).isZero();
+        assertThat(bulkhead.getLimiter().getInFlight()).isZero();
+    }
+
+    @Test
+    void streamingExportsAreLimitedSeparately() throws Exception {
+        try (Connection export = BulkheadDataSource.streaming(bulkhead::getConnection)) {
+            assertThatThrownBy(() -> BulkheadDataSource.streaming(bulkhead::getConnection))
+                    .isInstanceOf(SQLTransientConnectionException.class);
+        }
+        BulkheadDataSource.streaming(bulkhead::getConnection).close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.bloodbank.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadYourWritesTrackerTest {
+    @Test
+    void fullTrackerForgetsTheEarliestWriterFirst() {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(60_000, 2);
+
+        tracker.recordWrite(1L);
+        tracker.recordWrite(2L);
+        tracker.recordWrite(1L);
+        tracker.recordWrite(3L);
+
+        assertThat(tracker.isSticky(1L)).isFalse();
+        assertThat(tracker.isSticky(2L)).isTrue();
+        assertThat(tracker.isSticky(3L)).isTrue();
+        assertThat(stickyUntil(tracker)).hasSize(2);
+    }
+
+    @Test
+    void expiredWritersAreDroppedBeforeTheTrackerFillsUp() throws InterruptedException {
+        ReadYourWritesTracker tracker = new ReadYourWritesTracker(20, 10);
+        tracker.recordWrite(1L);
+        tracker.recordWrite(2L);
+        Thread.sleep(50);
+
+        tracker.recordWrite(3L);
+
+        assertThat(tracker.isSticky(1L)).isFalse();
+        assertThat(stickyUntil(tracker)).containsOnlyKeys(3L);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, Long> stickyUntil(ReadYourWritesTracker tracker) {
+        return (Map<Long, Long>) ReflectionTestUtils.getField(tracker, "stickyUntil");
+    }
+}
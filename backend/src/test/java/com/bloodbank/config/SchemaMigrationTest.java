@@ -0,0 +1,51 @@
+package com.bloodbank.config;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Upgrades a database the way existing deployments are upgraded: built by ddl-auto=update from the
+ * baseline entities, baselined at V1 and migrated from there.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SchemaMigrationTest {
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0");
+
+    @Test
+    void baselinedDatabaseGetsEntityColumnsAddedAfterTheBaseline() {
+        DataSource dataSource = new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__initial_schema.sql")).execute(dataSource);
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        assertThat(columns(jdbcTemplate, "users")).contains("token_version");
+        assertThat(columns(jdbcTemplate, "donors")).contains("latitude", "longitude");
+        assertThat(columns(jdbcTemplate, "stock")).contains("version");
+        assertThat(columns(jdbcTemplate, "blood_units")).contains("expires_on", "remaining");
+    }
+
+    private static List<String> columns(JdbcTemplate jdbcTemplate, String table) {
+        return jdbcTemplate.queryForList("SELECT column_name FROM information_schema.columns " +
+                "WHERE table_schema = DATABASE() AND table_name = ?", String.class, table);
+    }
+}
@@ -0,0 +1,80 @@
+package com.bloodbank.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlTracingDataSourceTest {
+    private SqlTracingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:tracing;DB_CLOSE_DELAY=-1");
+        dataSource = new SqlTracingDataSource(h2, 10_000);
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS item (id INT PRIMARY KEY)");
+            statement.execute("DELETE FROM item");
+            statement.execute("INSERT INTO item VALUES (1), (2), (3)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SqlTrace.end();
+    }
+
+    @Test
+    void countsRowsReadFromQueryResults() throws Exception {
+        SqlTrace trace = SqlTrace.begin(true);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT id FROM item WHERE id > ?")) {
+            statement.setInt(1, 1);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    resultSet.getInt(1);
+                }
+            }
+        }
+
+        assertThat(trace.getStatementCount()).isEqualTo(1);
+        assertThat(trace.getStatements()).singleElement()
+                .satisfies(entry -> assertThat(entry.getRows()).isEqualTo(2));
+    }
+
+    @Test
+    void countsRowsOfResultSetFetchedAfterExecute() throws Exception {
+        SqlTrace trace = SqlTrace.begin(true);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            assertThat(statement.execute("SELECT id FROM item")).isTrue();
+            try (ResultSet resultSet = statement.getResultSet()) {
+                while (resultSet.next()) {
+                    resultSet.getInt(1);
+                }
+            }
+        }
+
+        assertThat(trace.getStatements()).singleElement()
+                .satisfies(entry -> assertThat(entry.getRows()).isEqualTo(3));
+    }
+
+    @Test
+    void countsUnsampledStatementsWithoutKeepingThem() throws Exception {
+        SqlTrace trace = SqlTrace.begin(false);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE item SET id = id + 10 WHERE id = 1");
+            statement.executeQuery("SELECT id FROM item").close();
+        }
+
+        assertThat(trace.getStatementCount()).isEqualTo(2);
+        assertThat(trace.getStatements()).isEmpty();
+    }
+}
@@ -0,0 +1,176 @@
+package com.bloodbank.controller;
+
+import com.bloodbank.config.SqlStatementCountAdvice;
+import com.bloodbank.model.BloodDonate;
+import com.bloodbank.model.BloodRequest;
+import com.bloodbank.model.Donor;
+import com.bloodbank.model.Patient;
+import com.bloodbank.model.Role;
+import com.bloodbank.model.User;
+import com.bloodbank.repository.BloodDonateRepository;
+import com.bloodbank.repository.BloodRequestRepository;
+import com.bloodbank.repository.DonorRepository;
+import com.bloodbank.repository.PatientRepository;
+import com.bloodbank.repository.RoleRepository;
+import com.bloodbank.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Holds the list endpoints to a fixed number of SQL statements, read from the statement count
+ * header, whatever the number of rows they return. An N+1 regression pushes a count past its budget.
+ * A malformed page cursor is checked to be answered as a bad request rather than a server error.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@WithMockUser(roles = "ADMIN")
+class ListEndpointQueryBudgetTest {
+    private static final int ROWS = 25;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private DonorRepository donorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+
+    @Autowired
+    private BloodDonateRepository bloodDonateRepository;
+
+    private static Donor donor;
+    private static Patient patient;
+
+    @BeforeEach
+    void seed() {
+        if (donor != null && patient != null) {
+            return;
+        }
+        for (int i = 0; i < ROWS; i++) {
+            // Requests alternate between patients and donors; the owners queried are the last of each.
+            Donor d = new Donor();
+            d.setUser(user("budget-donor" + i, Role.ERole.ROLE_DONOR));
+            d.setBloodGroup("O+");
+            d.setAddress("Address");
+            d.setMobile("555");
+            Donor savedDonor = donorRepository.save(d);
+
+            Patient p = new Patient();
+            p.setUser(user("budget-patient" + i, Role.ERole.ROLE_PATIENT));
+            p.setAge(40);
+            p.setBloodGroup("A+");
+            p.setDisease("None");
+            p.setDoctorName("Doctor");
+            p.setAddress("Address");
+            p.setMobile("555");
+            Patient savedPatient = patientRepository.save(p);
+
+            BloodRequest request = new BloodRequest();
+            if (i % 2 == 0) {
+                request.setPatient(savedPatient);
+                patient = savedPatient;
+            } else {
+                request.setDonor(savedDonor);
+                donor = savedDonor;
+            }
+            request.setPatientName("Patient " + i);
+            request.setPatientAge(40);
+            request.setReason("Surgery");
+            request.setBloodGroup("A+");
+            request.setUnit(1);
+            bloodRequestRepository.save(request);
+
+            BloodDonate donation = new BloodDonate();
+            donation.setDonor(savedDonor);
+            donation.setAge(30);
+            donation.setBloodGroup("O+");
+            donation.setUnit(1);
+            bloodDonateRepository.save(donation);
+        }
+    }
+
+    @ParameterizedTest(name = "{0} within {1} statements")
+    @CsvSource({
+            "/api/donors, 1",
+            "/api/donors/page, 1",
+            "/api/patients, 1",
+            "/api/patients/page, 1",
+            "/api/requests, 1",
+            "/api/requests/page, 1",
+            "/api/requests/pending, 1",
+            "/api/donations, 1",
+            "/api/donations/page, 1",
+    })
+    void listEndpointStaysWithinBudget(String path, int budget) throws Exception {
+        assertThat(statementCount(path)).isLessThanOrEqualTo(budget);
+    }
+
+    @ParameterizedTest(name = "{0} within {1} statements")
+    @CsvSource({
+            "/api/requests/patient/, 1",
+            "/api/requests/donor/, 1",
+            "/api/donations/donor/, 1",
+    })
+    void ownerListEndpointStaysWithinBudget(String path, int budget) throws Exception {
+        Long userId = path.contains("patient") ? patient.getUser().getId() : donor.getUser().getId();
+        assertThat(statementCount(path + userId)).isLessThanOrEqualTo(budget);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({
+            "/api/requests/page",
+            "/api/donations/page",
+    })
+    void malformedDateCursorIsABadRequest(String path) throws Exception {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("not-a-date\n1".getBytes(StandardCharsets.UTF_8));
+        mockMvc.perform(get(path).param("sort", "date").param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    private int statementCount(String path) throws Exception {
+        MvcResult result = mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn();
+        String header = result.getResponse().getHeader(SqlStatementCountAdvice.HEADER);
+        assertThat(header).as(SqlStatementCountAdvice.HEADER + " on " + path).isNotNull();
+        assertThat(result.getResponse().getContentAsString()).as("rows from " + path).contains("\"id\"");
+        return Integer.parseInt(header);
+    }
+
+    private User user(String username, Role.ERole role) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("x");
+        user.setFirstName("First");
+        user.setLastName("Last");
+        user.setEmail(username + "@example.com");
+        user.setRoles(Set.of(roleRepository.findByName(role).orElseThrow()));
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,186 @@
+package com.bloodbank.repository;
+
+import com.bloodbank.model.BloodDonate.DonationStatus;
+import com.bloodbank.model.BloodRequest.RequestStatus;
+import com.bloodbank.service.BloodCompatibility;
+import com.bloodbank.service.BloodDonateService;
+import com.bloodbank.service.BloodRequestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the hot repository queries are served by the indexes from V2__hot_path_indexes.sql.
+ * <p>
+ * The SQL Hibernate actually sends is captured from MySQL's general log, which records statements
+ * with their bound values because Connector/J prepares statements on the client, and then run
+ * through EXPLAIN against a seeded schema built by the Flyway migrations.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class HotPathIndexPlanTest {
+    private static final int DONORS = 200;
+    private static final int PATIENTS = 200;
+    private static final int ROWS = 5000;
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withUsername("root")
+            .withPassword("test")
+            .withCommand("--general-log=1", "--log-output=TABLE");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+
+    @Autowired
+    private BloodDonateRepository bloodDonateRepository;
+
+    @Autowired
+    private BloodRequestService bloodRequestService;
+
+    @Autowired
+    private BloodDonateService bloodDonateService;
+
+    private static boolean seeded;
+
+    @Test
+    void statusQueuesUseStatusIndexes() {
+        seed();
+        assertThat(keysUsed("blood_requests", () -> bloodRequestRepository.findByStatus(RequestStatus.PENDING)))
+                .anyMatch(key -> key.startsWith("idx_blood_requests_status"));
+        assertThat(keysUsed("blood_donations", () -> bloodDonateRepository.findByStatus(DonationStatus.PENDING)))
+                .anyMatch(key -> key.startsWith("idx_blood_donations_status"));
+    }
+
+    @Test
+    void ownerListsUseOwnerIndexes() {
+        seed();
+        assertThat(keysUsed("blood_requests", () -> bloodRequestRepository.findByDonor_User_Id(7L)))
+                .contains("idx_blood_requests_donor");
+        assertThat(keysUsed("blood_requests", () -> bloodRequestRepository.findByPatient_User_Id(DONORS + 7L)))
+                .contains("idx_blood_requests_patient");
+        assertThat(keysUsed("blood_donations", () -> bloodDonateRepository.findByDonor_User_Id(7L)))
+                .contains("idx_blood_donations_donor");
+    }
+
+    @Test
+    void keysetPagesUseSortIndexes() {
+        seed();
+        assertThat(keysUsed("blood_requests", () ->
+                bloodRequestService.getRequestsPage(null, 20, "id", false, RequestStatus.PENDING, null)))
+                .contains("idx_blood_requests_status_id");
+        assertThat(keysUsed("blood_requests", () ->
+                bloodRequestService.getRequestsPage(null, 20, "date", true, RequestStatus.APPROVED, null)))
+                .contains("idx_blood_requests_status_date");
+        assertThat(keysUsed("blood_requests", () ->
+                bloodRequestService.getRequestsPage(null, 20, "bloodGroup", false, RequestStatus.APPROVED, null)))
+                .contains("idx_blood_requests_status_blood_group");
+        assertThat(keysUsed("blood_requests", () ->
+                bloodRequestService.getRequestsPage(null, 20, "date", true, null, null)))
+                .contains("idx_blood_requests_date");
+
+        String cursor = bloodRequestService.getRequestsPage(null, 20, "date", true, null, null).getNextCursor();
+        assertThat(keysUsed("blood_requests", () ->
+                bloodRequestService.getRequestsPage(cursor, 20, "date", true, null, null)))
+                .contains("idx_blood_requests_date");
+
+        assertThat(keysUsed("blood_donations", () ->
+                bloodDonateService.getDonationsPage(null, 20, "date", true, DonationStatus.APPROVED, null)))
+                .contains("idx_blood_donations_status_date");
+        assertThat(keysUsed("blood_donations", () ->
+                bloodDonateService.getDonationsPage(null, 20, "date", true, null, null)))
+                .contains("idx_blood_donations_date");
+    }
+
+    /**
+     * Runs {@code query} and returns the indexes EXPLAIN reports for the statement it sent to
+     * {@code table}.
+     */
+    private Set<String> keysUsed(String table, Runnable query) {
+        jdbcTemplate.execute("TRUNCATE TABLE mysql.general_log");
+        query.run();
+        List<String> statements = jdbcTemplate.queryForList(
+                "SELECT CONVERT(argument USING utf8mb4) FROM mysql.general_log " +
+                        "WHERE command_type = 'Query' AND argument LIKE ? ORDER BY event_time DESC",
+                String.class, "select % from " + table + " %");
+        assertThat(statements).as("statements sent to " + table).isNotEmpty();
+        return jdbcTemplate.queryForList("EXPLAIN " + statements.get(0)).stream()
+                .map(row -> (String) row.get("key"))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private void seed() {
+        if (seeded) {
+            return;
+        }
+        List<Object[]> users = new ArrayList<>();
+        for (int id = 1; id <= DONORS + PATIENTS; id++) {
+            users.add(new Object[]{id, "user" + id, "user" + id + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password, first_name, last_name, email, enabled, " +
+                "token_version) VALUES (?, ?, 'x', 'First', 'Last', ?, TRUE, 0)", users);
+
+        List<Object[]> donors = new ArrayList<>();
+        for (int id = 1; id <= DONORS; id++) {
+            donors.add(new Object[]{id, id, BloodCompatibility.GROUPS[id % BloodCompatibility.GROUP_COUNT]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO donors (id, user_id, blood_group, address, mobile) " +
+                "VALUES (?, ?, ?, 'Address', '555')", donors);
+
+        List<Object[]> patients = new ArrayList<>();
+        for (int id = 1; id <= PATIENTS; id++) {
+            patients.add(new Object[]{id, DONORS + id, BloodCompatibility.GROUPS[id % BloodCompatibility.GROUP_COUNT]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO patients (id, user_id, age, blood_group, disease, doctor_name, " +
+                "address, mobile) VALUES (?, ?, 40, ?, 'None', 'Doctor', 'Address', '555')", patients);
+
+        LocalDate start = LocalDate.of(2023, 1, 1);
+        List<Object[]> requests = new ArrayList<>();
+        List<Object[]> donations = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            // A few pending rows in a mostly processed history, as in a long-running deployment.
+            String status = i % 40 == 0 ? "PENDING" : i % 10 == 0 ? "REJECTED" : "APPROVED";
+            String group = BloodCompatibility.GROUPS[i % BloodCompatibility.GROUP_COUNT];
+            LocalDate date = start.plusDays(i % 1000);
+            boolean byPatient = i % 2 == 0;
+            requests.add(new Object[]{byPatient ? i % PATIENTS + 1 : null, byPatient ? null : i % DONORS + 1,
+                    group, status, date});
+            donations.add(new Object[]{i % DONORS + 1, group, status, date});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO blood_requests (patient_id, donor_id, patient_name, patient_age, " +
+                "reason, blood_group, unit, status, date) VALUES (?, ?, 'Patient', 40, 'Surgery', ?, 1, ?, ?)", requests);
+        jdbcTemplate.batchUpdate("INSERT INTO blood_donations (donor_id, disease, age, blood_group, unit, status, date) " +
+                "VALUES (?, 'Nothing', 30, ?, 1, ?, ?)", donations);
+
+        for (String table : List.of("users", "donors", "patients", "blood_requests", "blood_donations")) {
+            jdbcTemplate.queryForList("ANALYZE TABLE " + table);
+        }
+        seeded = true;
+    }
+}
@@ -0,0 +1,103 @@
+package com.bloodbank.security.jwt;
+
+import com.bloodbank.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilsTest {
+    private final JwtUtils jwtUtils = new JwtUtils();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserDetailsImpl admin = new UserDetailsImpl(7L, "admin", "admin@example.com", null,
+            List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), 3L, true);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "test-secret-that-is-long-enough-for-hmac-sha-256");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(jwtUtils, "streamTokenExpirationMs", 60_000);
+        ReflectionTestUtils.setField(jwtUtils, "cacheMaxEntries", 2);
+        ReflectionTestUtils.setField(jwtUtils, "meterRegistry", meterRegistry);
+        jwtUtils.init();
+    }
+
+    @Test
+    void streamTokenOnlyOpensTheStream() {
+        String streamToken = jwtUtils.generateStreamToken(admin);
+
+        UserDetailsImpl principal = jwtUtils.getUserDetailsFromStreamToken(streamToken);
+        assertThat(principal).isNotNull();
+        assertThat(principal.getId()).isEqualTo(7L);
+        assertThat(principal.getTokenVersion()).isEqualTo(3L);
+        assertThat(jwtUtils.getUserDetailsFromJwtToken(streamToken)).isNull();
+    }
+
+    @Test
+    void accessTokenIsNotAStreamToken() {
+        String accessToken = accessToken();
+
+        assertThat(jwtUtils.getUserDetailsFromJwtToken(accessToken)).isNotNull();
+        assertThat(jwtUtils.getUserDetailsFromStreamToken(accessToken)).isNull();
+    }
+
+    @Test
+    void fullCacheEvictsOnlyTheOldestToken() {
+        String first = accessToken(admin);
+        String second = accessToken(userWithId(8L));
+        String third = accessToken(userWithId(9L));
+        jwtUtils.getUserDetailsFromJwtToken(first);
+        jwtUtils.getUserDetailsFromJwtToken(second);
+        jwtUtils.getUserDetailsFromJwtToken(third);
+
+        jwtUtils.getUserDetailsFromJwtToken(second);
+        jwtUtils.getUserDetailsFromJwtToken(third);
+        assertThat(cacheLookups("hit")).as("recent tokens are still cached").isEqualTo(2);
+        jwtUtils.getUserDetailsFromJwtToken(first);
+        assertThat(cacheLookups("miss")).as("the oldest token was evicted").isEqualTo(4);
+    }
+
+    @Test
+    void expiredTokensAreDroppedBeforeTheCacheFillsUp() throws InterruptedException {
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 1_000);
+        String expiring = accessToken(admin);
+        assertThat(jwtUtils.getUserDetailsFromJwtToken(expiring)).isNotNull();
+        // Expiry is kept in whole seconds.
+        Thread.sleep(2_000);
+        assertThat(jwtUtils.getUserDetailsFromJwtToken(expiring)).isNull();
+
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        String fresh = accessToken(userWithId(8L));
+        jwtUtils.getUserDetailsFromJwtToken(fresh);
+
+        Map<?, ?> verifiedTokens = (Map<?, ?>) ReflectionTestUtils.getField(jwtUtils, "verifiedTokens");
+        Collection<?> insertionOrder = (Collection<?>) ReflectionTestUtils.getField(jwtUtils, "insertionOrder");
+        assertThat(List.<Object>copyOf(verifiedTokens.keySet())).containsExactly(fresh);
+        assertThat(List.<Object>copyOf(insertionOrder)).containsExactly(fresh);
+    }
+
+    private double cacheLookups(String result) {
+        return meterRegistry.get("bloodbank.jwt.cache").tag("result", result).counter().count();
+    }
+
+    private static UserDetailsImpl userWithId(long id) {
+        return new UserDetailsImpl(id, "user" + id, "user" + id + "@example.com", null,
+                List.of(new SimpleGrantedAuthority("ROLE_DONOR")), 0L, true);
+    }
+
+    private String accessToken() {
+        return accessToken(admin);
+    }
+
+    private String accessToken(UserDetailsImpl user) {
+        return jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+}
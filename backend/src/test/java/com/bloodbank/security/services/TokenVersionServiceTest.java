@@ -0,0 +1,43 @@
+package com.bloodbank.security.services;
+
+import com.bloodbank.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenVersionServiceTest {
+    private final TokenVersionService tokenVersionService = new TokenVersionService();
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenVersionService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(tokenVersionService, "cacheTtlMs", 60_000L);
+        ReflectionTestUtils.setField(tokenVersionService, "cacheMaxEntries", 2);
+        when(userRepository.findActiveTokenVersion(anyLong())).thenReturn(Optional.of(0L));
+    }
+
+    @Test
+    void fullCacheEvictsOnlyTheOldestUser() {
+        assertThat(tokenVersionService.isCurrent(1L, 0L)).isTrue();
+        tokenVersionService.isCurrent(2L, 0L);
+        tokenVersionService.isCurrent(3L, 0L);
+
+        tokenVersionService.isCurrent(2L, 0L);
+        tokenVersionService.isCurrent(3L, 0L);
+        verify(userRepository, times(1)).findActiveTokenVersion(2L);
+        verify(userRepository, times(1)).findActiveTokenVersion(3L);
+
+        tokenVersionService.isCurrent(1L, 0L);
+        verify(userRepository, times(2)).findActiveTokenVersion(1L);
+    }
+}
@@ -0,0 +1,132 @@
+package com.bloodbank.service;
+
+import com.bloodbank.model.BloodDonate;
+import com.bloodbank.model.BloodDonate.DonationStatus;
+import com.bloodbank.model.BloodRequest;
+import com.bloodbank.model.BloodRequest.RequestStatus;
+import com.bloodbank.repository.BloodDonateRepository;
+import com.bloodbank.repository.BloodRequestRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ApprovalPipelineTest {
+    private ApprovalPipeline pipeline;
+    private BloodRequestRepository bloodRequestRepository;
+    private BloodDonateRepository bloodDonateRepository;
+    private StockService stockService;
+    private final Map<Long, BloodRequest> requests = new HashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ApprovalMetrics approvalMetrics = new ApprovalMetrics();
+        ReflectionTestUtils.setField(approvalMetrics, "meterRegistry", new SimpleMeterRegistry());
+        bloodRequestRepository = mock(BloodRequestRepository.class);
+        bloodDonateRepository = mock(BloodDonateRepository.class);
+        stockService = mock(StockService.class);
+        // Answers for every request stubbed so far, however the lane happens to batch them.
+        when(bloodRequestRepository.findAllById(anyCollection())).thenAnswer(invocation ->
+                ((Collection<?>) invocation.getArgument(0)).stream().map(requests::get).filter(Objects::nonNull).toList());
+        TransactionRetrier transactionRetrier = mock(TransactionRetrier.class);
+        when(transactionRetrier.execute(any())).thenAnswer(invocation -> ((Supplier<Object>) invocation.getArgument(0)).get());
+
+        pipeline = new ApprovalPipeline();
+        ReflectionTestUtils.setField(pipeline, "approvalMetrics", approvalMetrics);
+        ReflectionTestUtils.setField(pipeline, "bloodRequestRepository", bloodRequestRepository);
+        ReflectionTestUtils.setField(pipeline, "bloodDonateRepository", bloodDonateRepository);
+        ReflectionTestUtils.setField(pipeline, "stockService", stockService);
+        ReflectionTestUtils.setField(pipeline, "transactionRetrier", transactionRetrier);
+        ReflectionTestUtils.setField(pipeline, "batchingEnabled", true);
+        ReflectionTestUtils.setField(pipeline, "maxBatchSize", 64);
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 16);
+    }
+
+    @Test
+    void unknownBloodGroupIsDeclinedWithoutALane() {
+        BloodRequest request = new BloodRequest();
+        request.setId(1L);
+        request.setBloodGroup("Z+");
+        when(bloodRequestRepository.findById(1L)).thenReturn(Optional.of(request));
+
+        assertThatThrownBy(() -> pipeline.approveRequest(1L, false).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DecisionConflictException.class)
+                .hasMessageContaining("Unknown blood group: Z+");
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(pipeline, "lanes")).isEmpty();
+    }
+
+    @Test
+    void failedBatchIsRetriedOneApprovalAtATime() throws Exception {
+        BloodRequest first = request(1L);
+        BloodRequest second = request(2L);
+        BloodDonate broken = new BloodDonate();
+        broken.setId(3L);
+        broken.setBloodGroup("A+");
+        broken.setUnit(1);
+        broken.setStatus(DonationStatus.PENDING);
+        when(bloodDonateRepository.findById(3L)).thenReturn(Optional.of(broken));
+        when(bloodDonateRepository.findAllById(anyCollection())).thenAnswer(invocation ->
+                ((Collection<?>) invocation.getArgument(0)).contains(3L) ? List.of(broken) : List.of());
+        doThrow(new IllegalStateException("lot rejected")).when(stockService)
+                .receiveDonations(argThat(donations -> donations.contains(broken)));
+        when(bloodRequestRepository.transitionStatuses(anyCollection(), eq(RequestStatus.PENDING),
+                eq(RequestStatus.APPROVED))).thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        when(stockService.allocateUnits(anyString(), anyInt())).thenReturn(true);
+
+        // Holds the lane's first batch so the other approvals queue up behind it as one batch.
+        CountDownLatch release = new CountDownLatch(1);
+        when(stockService.usableLevels(any())).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return Map.of("A+", 10);
+        });
+
+        CompletableFuture<BloodRequest> held = pipeline.approveRequest(first.getId(), false);
+        CompletableFuture<BloodRequest> approved = pipeline.approveRequest(second.getId(), false);
+        CompletableFuture<BloodDonate> failed = pipeline.approveDonation(broken.getId());
+        release.countDown();
+
+        assertThat(held.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo(RequestStatus.APPROVED);
+        assertThat(approved.get(10, TimeUnit.SECONDS).getStatus()).isEqualTo(RequestStatus.APPROVED);
+        assertThatThrownBy(() -> failed.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasMessageContaining("lot rejected");
+        pipeline.shutdown();
+    }
+
+    private BloodRequest request(Long id) {
+        BloodRequest request = new BloodRequest();
+        request.setId(id);
+        request.setBloodGroup("A+");
+        request.setUnit(1);
+        request.setStatus(RequestStatus.PENDING);
+        when(bloodRequestRepository.findById(id)).thenReturn(Optional.of(request));
+        requests.put(id, request);
+        return request;
+    }
+}
@@ -0,0 +1,96 @@
+package com.bloodbank.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloodCompatibilityTest {
+    @ParameterizedTest(name = "{0} receives from {1}")
+    @CsvSource({
+            "A+,  A+ A- O+ O-",
+            "A-,  A- O-",
+            "B+,  B+ B- O+ O-",
+            "B-,  B- O-",
+            "AB+, A+ A- B+ B- AB+ AB- O+ O-",
+            "AB-, A- B- AB- O-",
+            "O+,  O+ O-",
+            "O-,  O-"
+    })
+    void compatibleDonorMaskMatchesTheRedCellTable(String recipientGroup, String donorGroups) {
+        int recipient = BloodCompatibility.indexOf(recipientGroup);
+        List<String> expected = Arrays.asList(donorGroups.split(" "));
+
+        for (String donorGroup : BloodCompatibility.GROUPS) {
+            int donor = BloodCompatibility.indexOf(donorGroup);
+            boolean compatible = expected.contains(donorGroup);
+            assertThat((BloodCompatibility.compatibleDonorMask(recipient) & (1 << donor)) != 0)
+                    .as("%s to %s", donorGroup, recipientGroup)
+                    .isEqualTo(compatible);
+            assertThat(BloodCompatibility.canDonate(donor, recipient))
+                    .as("%s to %s", donorGroup, recipientGroup)
+                    .isEqualTo(compatible);
+        }
+    }
+
+    @ParameterizedTest(name = "{0} draws {1}")
+    @CsvSource({
+            "A+,  A+ O+ A- O-",
+            "A-,  A- O-",
+            "B+,  B+ O+ B- O-",
+            "B-,  B- O-",
+            "AB+, AB+ A+ B+ AB- O+ A- B- O-",
+            "AB-, AB- A- B- O-",
+            "O+,  O+ O-",
+            "O-,  O-"
+    })
+    void substitutionDrawsTheExactGroupThenTheLeastVersatileDonors(String recipientGroup, String drawOrder) {
+        assertThat(drawOrder(BloodCompatibility.indexOf(recipientGroup)))
+                .containsExactly(drawOrder.split(" "));
+    }
+
+    @Test
+    void withoutSubstitutionOnlyTheExactGroupIsDrawn() {
+        int[] levels = new int[BloodCompatibility.GROUP_COUNT];
+        Arrays.fill(levels, 10);
+        levels[BloodCompatibility.indexOf("A+")] = 3;
+        int[] allocation = new int[BloodCompatibility.GROUP_COUNT];
+
+        int shortfall = BloodCompatibility.plan(BloodCompatibility.indexOf("A+"), 5, levels, false, allocation);
+
+        assertThat(shortfall).isEqualTo(2);
+        assertThat(Arrays.stream(allocation).sum()).isEqualTo(3);
+        assertThat(allocation[BloodCompatibility.indexOf("A+")]).isEqualTo(3);
+    }
+
+    @Test
+    void unknownGroupsHaveNoIndex() {
+        assertThat(BloodCompatibility.indexOf("C+")).isNegative();
+        assertThat(BloodCompatibility.indexOf(null)).isNegative();
+    }
+
+    // One unit in every group, so each extra unit requested reveals the next group in the draw order.
+    private static List<String> drawOrder(int recipient) {
+        int[] levels = new int[BloodCompatibility.GROUP_COUNT];
+        Arrays.fill(levels, 1);
+        int[] allocation = new int[BloodCompatibility.GROUP_COUNT];
+        List<String> order = new ArrayList<>();
+        for (int units = 1; units <= BloodCompatibility.GROUP_COUNT; units++) {
+            if (BloodCompatibility.plan(recipient, units, levels, true, allocation) > 0) {
+                break;
+            }
+            for (int donor = 0; donor < allocation.length; donor++) {
+                String group = BloodCompatibility.GROUPS[donor];
+                if (allocation[donor] > 0 && !order.contains(group)) {
+                    order.add(group);
+                }
+            }
+        }
+        return order;
+    }
+}
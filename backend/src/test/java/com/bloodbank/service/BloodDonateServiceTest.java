@@ -0,0 +1,142 @@
+package com.bloodbank.service;
+
+import com.bloodbank.dto.BulkActionResult;
+import com.bloodbank.model.BloodDonate;
+import com.bloodbank.model.BloodDonate.DonationStatus;
+import com.bloodbank.model.Donor;
+import com.bloodbank.model.Role;
+import com.bloodbank.model.User;
+import com.bloodbank.repository.DonorRepository;
+import com.bloodbank.repository.RoleRepository;
+import com.bloodbank.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Approves and rejects donations in bulk, checking that each id gets its own outcome and that only the
+ * approved donations reach the stock.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class BloodDonateServiceTest {
+    @Autowired
+    private BloodDonateService bloodDonateService;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private BloodUnitInventory inventory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private DonorRepository donorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static Donor donor;
+
+    @BeforeEach
+    void seed() {
+        if (donor != null) {
+            return;
+        }
+        User user = new User();
+        user.setUsername("bulk-donor");
+        user.setPassword("x");
+        user.setFirstName("First");
+        user.setLastName("Last");
+        user.setEmail("bulk-donor@example.com");
+        user.setRoles(Set.of(roleRepository.findByName(Role.ERole.ROLE_DONOR).orElseThrow()));
+
+        Donor d = new Donor();
+        d.setUser(userRepository.save(user));
+        d.setBloodGroup("O-");
+        d.setAddress("Address");
+        d.setMobile("555");
+        donor = donorRepository.save(d);
+    }
+
+    @Test
+    void bulkApprovalReceivesWhatItCanAndReportsEachFailure() {
+        String bloodGroup = "O-";
+        emptyStock(bloodGroup);
+        Long first = pendingDonation(bloodGroup, 2);
+        Long second = pendingDonation(bloodGroup, 3);
+        Long noStock = pendingDonation("C+", 1);
+        Long unknown = Long.MAX_VALUE;
+
+        List<BulkActionResult> results = bloodDonateService.approveDonations(
+                List.of(first, second, first, noStock, unknown));
+
+        assertThat(results).extracting(BulkActionResult::getId, BulkActionResult::isSuccess,
+                        BulkActionResult::getStatus, BulkActionResult::getMessage)
+                .containsExactly(
+                        tuple(first, true, "APPROVED", null),
+                        tuple(second, true, "APPROVED", null),
+                        tuple(first, false, null, "Donation has already been processed"),
+                        tuple(noStock, false, null, "Stock not found"),
+                        tuple(unknown, false, null, "Donation not found"));
+        assertThat(status(first)).isEqualTo(DonationStatus.APPROVED);
+        assertThat(status(noStock)).isEqualTo(DonationStatus.PENDING);
+        assertThat(stockService.currentLevels(List.of(bloodGroup))).containsEntry(bloodGroup, 5);
+    }
+
+    @Test
+    void bulkRejectionRejectsPendingDonationsOnly() {
+        String bloodGroup = "O-";
+        emptyStock(bloodGroup);
+        Long approved = pendingDonation(bloodGroup, 1);
+        bloodDonateService.approveDonation(approved);
+        Long pending = pendingDonation(bloodGroup, 4);
+        Long unknown = Long.MAX_VALUE;
+
+        List<BulkActionResult> results = bloodDonateService.rejectDonations(List.of(pending, approved, unknown));
+
+        assertThat(results).extracting(BulkActionResult::getId, BulkActionResult::isSuccess,
+                        BulkActionResult::getStatus, BulkActionResult::getMessage)
+                .containsExactly(
+                        tuple(pending, true, "REJECTED", null),
+                        tuple(approved, false, null, "Donation has already been processed"),
+                        tuple(unknown, false, null, "Donation not found"));
+        assertThat(status(pending)).isEqualTo(DonationStatus.REJECTED);
+        assertThat(status(approved)).isEqualTo(DonationStatus.APPROVED);
+        assertThat(stockService.currentLevels(List.of(bloodGroup))).containsEntry(bloodGroup, 1);
+    }
+
+    private void emptyStock(String bloodGroup) {
+        jdbcTemplate.update("DELETE FROM blood_units WHERE blood_group = ?", bloodGroup);
+        jdbcTemplate.update("UPDATE stock SET unit = 0, version = version + 1 WHERE blood_group = ?", bloodGroup);
+        inventory.reloadAll();
+        stockService.updateStock(bloodGroup, 0);
+    }
+
+    private Long pendingDonation(String bloodGroup, int units) {
+        BloodDonate donation = new BloodDonate();
+        donation.setDonor(donor);
+        donation.setAge(30);
+        donation.setBloodGroup(bloodGroup);
+        donation.setUnit(units);
+        return bloodDonateService.createDonation(donation).getId();
+    }
+
+    private DonationStatus status(Long donationId) {
+        return bloodDonateService.getDonationById(donationId).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,164 @@
+package com.bloodbank.service;
+
+import com.bloodbank.model.BloodUnit;
+import com.bloodbank.model.BloodUnit.UnitStatus;
+import com.bloodbank.repository.BloodUnitRepository;
+import com.bloodbank.repository.StockRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Lot allocation and expiry against the H2 database. Each test starts its blood group from an
+ * empty stock row; lots written "behind the inventory's back" stand in for the other replica.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class BloodUnitInventoryTest {
+    @Autowired
+    private BloodUnitInventory inventory;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private ExpirySweeper expirySweeper;
+
+    @Autowired
+    private TransactionRetrier transactionRetrier;
+
+    @Autowired
+    private StockRepository stockRepository;
+
+    @Autowired
+    private BloodUnitRepository bloodUnitRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void allocationDrawsTheEarliestExpiringLotsFirst() {
+        String bloodGroup = "B+";
+        emptyStock(bloodGroup);
+        LocalDate today = LocalDate.now();
+        BloodUnit newest = receive(bloodGroup, 3, today);
+        BloodUnit oldest = receive(bloodGroup, 3, today.minusDays(30));
+        BloodUnit middle = receive(bloodGroup, 3, today.minusDays(10));
+
+        assertThat(transactionRetrier.execute(() -> stockService.allocateUnits(bloodGroup, 5))).isTrue();
+
+        assertThat(reload(oldest)).extracting(BloodUnit::getRemaining, BloodUnit::getStatus)
+                .containsExactly(0, UnitStatus.DEPLETED);
+        assertThat(reload(middle)).extracting(BloodUnit::getRemaining, BloodUnit::getStatus)
+                .containsExactly(1, UnitStatus.AVAILABLE);
+        assertThat(reload(newest).getRemaining()).isEqualTo(3);
+        assertThat(stockService.currentLevels(List.of(bloodGroup))).containsEntry(bloodGroup, 4);
+    }
+
+    @Test
+    void allocationAcrossLotsIsWrittenWholeOrNotAtAll() {
+        String bloodGroup = "AB+";
+        emptyStock(bloodGroup);
+        LocalDate today = LocalDate.now();
+        BloodUnit older = receive(bloodGroup, 3, today.minusDays(5));
+        BloodUnit newer = receive(bloodGroup, 3, today);
+        inventory.reloadAll();
+        // The other replica took two units from the older lot and received a new one.
+        jdbcTemplate.update("UPDATE blood_units SET remaining = 1 WHERE id = ?", older.getId());
+        jdbcTemplate.update("UPDATE stock SET unit = unit - 2, version = version + 1 WHERE blood_group = ?", bloodGroup);
+        BloodUnit received = addBehindTheInventory(bloodGroup, 2, today, UnitStatus.AVAILABLE);
+
+        assertThatThrownBy(() -> transactionTemplate.execute(status -> stockService.allocateUnits(bloodGroup, 5)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(reload(newer).getRemaining()).isEqualTo(3);
+
+        assertThat(transactionRetrier.execute(() -> stockService.allocateUnits(bloodGroup, 5))).isTrue();
+        assertThat(List.of(reload(older), reload(newer), reload(received)))
+                .extracting(BloodUnit::getRemaining, BloodUnit::getStatus)
+                .containsExactly(tuple(0, UnitStatus.DEPLETED), tuple(0, UnitStatus.DEPLETED),
+                        tuple(1, UnitStatus.AVAILABLE));
+        assertThat(stockService.currentLevels(List.of(bloodGroup))).containsEntry(bloodGroup, 1);
+    }
+
+    @Test
+    void stalePlanIsRetriedAgainstTheLotsInTheTable() {
+        String bloodGroup = "O+";
+        emptyStock(bloodGroup);
+        LocalDate today = LocalDate.now();
+        BloodUnit cached = receive(bloodGroup, 5, today);
+        // The other replica drew the cached lot dry and received a new one.
+        jdbcTemplate.update("UPDATE blood_units SET remaining = 0, status = 'DEPLETED' WHERE id = ?", cached.getId());
+        BloodUnit replacement = addBehindTheInventory(bloodGroup, 5, today, UnitStatus.AVAILABLE);
+
+        assertThat(transactionRetrier.execute(() -> stockService.allocateUnits(bloodGroup, 2))).isTrue();
+
+        assertThat(reload(replacement).getRemaining()).isEqualTo(3);
+        assertThat(reload(cached).getRemaining()).isZero();
+    }
+
+    @Test
+    void sweepExpiresDueLotsAndTakesTheirUnitsOffTheLevel() {
+        String bloodGroup = "O-";
+        emptyStock(bloodGroup);
+        LocalDate today = LocalDate.now();
+        BloodUnit fresh = receive(bloodGroup, 2, today);
+        BloodUnit expired = addBehindTheInventory(bloodGroup, 6, today.minusDays(43), UnitStatus.AVAILABLE);
+        assertThat(stockService.currentLevels(List.of(bloodGroup))).containsEntry(bloodGroup, 8);
+
+        assertThat(transactionRetrier.execute(() -> stockService.expireUnits(bloodGroup, List.of(fresh.getId()))))
+                .isZero();
+        // The reload schedules the expired lot, which then comes due on the next sweep.
+        inventory.reloadAll();
+        expirySweeper.sweep();
+
+        assertThat(reload(expired).getStatus()).isEqualTo(UnitStatus.EXPIRED);
+        assertThat(reload(fresh).getStatus()).isEqualTo(UnitStatus.AVAILABLE);
+        assertThat(stockService.currentLevels(List.of(bloodGroup))).containsEntry(bloodGroup, 2);
+        assertThat(stockService.usableLevels(List.of(bloodGroup))).containsEntry(bloodGroup, 2);
+    }
+
+    private void emptyStock(String bloodGroup) {
+        jdbcTemplate.update("DELETE FROM blood_units WHERE blood_group = ?", bloodGroup);
+        jdbcTemplate.update("UPDATE stock SET unit = 0, version = version + 1 WHERE blood_group = ?", bloodGroup);
+        inventory.reloadAll();
+        stockService.updateStock(bloodGroup, 0);
+    }
+
+    private BloodUnit receive(String bloodGroup, int units, LocalDate collectedOn) {
+        BloodUnit lot = inventory.newLot(bloodGroup, units, null, collectedOn);
+        transactionTemplate.executeWithoutResult(status -> {
+            stockRepository.replenish(bloodGroup, units);
+            inventory.receive(List.of(lot));
+        });
+        stockService.invalidateSnapshot();
+        return lot;
+    }
+
+    private BloodUnit addBehindTheInventory(String bloodGroup, int units, LocalDate collectedOn, UnitStatus status) {
+        BloodUnit lot = new BloodUnit(null, null, bloodGroup, units, units, collectedOn, collectedOn.plusDays(42), status);
+        transactionTemplate.executeWithoutResult(tx -> {
+            stockRepository.replenish(bloodGroup, units);
+            bloodUnitRepository.save(lot);
+        });
+        stockService.invalidateSnapshot();
+        return lot;
+    }
+
+    private BloodUnit reload(BloodUnit lot) {
+        return bloodUnitRepository.findById(lot.getId()).orElseThrow();
+    }
+}
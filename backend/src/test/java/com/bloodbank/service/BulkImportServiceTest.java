@@ -0,0 +1,58 @@
+package com.bloodbank.service;
+
+import com.bloodbank.dto.ImportReport;
+import com.bloodbank.dto.ImportRowError;
+import com.bloodbank.model.Role;
+import com.bloodbank.repository.RoleRepository;
+import com.bloodbank.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("h2")
+class BulkImportServiceTest {
+    @Autowired
+    private BulkImportService bulkImportService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void ensureRole() {
+        if (roleRepository.findByName(Role.ERole.ROLE_DONOR).isEmpty()) {
+            Role role = new Role();
+            role.setName(Role.ERole.ROLE_DONOR);
+            roleRepository.save(role);
+        }
+    }
+
+    @Test
+    void rowRejectedByTheDatabaseDoesNotRejectTheRestOfItsChunk() throws Exception {
+        String csv = "username,email,password,firstName,lastName,bloodGroup,address,mobile\n"
+                + "importa,importa@example.com,secret1,Ann,Lee,A+,1 Main St,555-0101\n"
+                + "importb,importb@example.com,secret2,Ben,Lee,B+," + "x".repeat(300) + ",555-0102\n"
+                + "importc,importc@example.com,secret3,Cat,Lee,O-,3 Main St,555-0103\n";
+
+        ImportReport report = bulkImportService.importCsv(BulkImportService.Kind.DONOR,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getErrors()).extracting(ImportRowError::getLine, ImportRowError::getUsername)
+                .containsExactly(tuple(3L, "importb"));
+        assertThat(userRepository.findExistingUsernames(List.of("importa", "importb", "importc")))
+                .containsExactlyInAnyOrder("importa", "importc");
+    }
+}
@@ -0,0 +1,177 @@
+package com.bloodbank.service;
+
+import com.bloodbank.model.BloodRequest;
+import com.bloodbank.model.BloodRequest.RequestStatus;
+import com.bloodbank.repository.BloodRequestRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Approves more requests than there is stock for from many threads at once, each thread trying
+ * every request in its own order, and checks that stock is never oversold and no request is
+ * approved twice. A second test races approvals against rejections of the same requests and checks
+ * that each request is decided exactly once.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class ConcurrentApprovalStressTest {
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrentApprovalStressTest.class);
+
+    private static final String BLOOD_GROUP = "AB-";
+    private static final int STOCK = 150;
+    private static final int REQUESTS = 300;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private BloodRequestService bloodRequestService;
+
+    @Autowired
+    private BloodRequestRepository bloodRequestRepository;
+
+    @Autowired
+    private StockService stockService;
+
+    @Autowired
+    private BloodUnitInventory inventory;
+
+    @Test
+    void concurrentApprovalsNeverOversellOrApproveTwice() throws Exception {
+        stockService.updateStock(BLOOD_GROUP, STOCK);
+        List<Long> ids = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            ids.add(bloodRequestService.createRequest(pendingRequest(BLOOD_GROUP, i)).getId());
+        }
+
+        Map<Long, AtomicInteger> approvals = new ConcurrentHashMap<>();
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicLong lastApproval = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            List<Long> order = new ArrayList<>(ids);
+            Collections.shuffle(order, ThreadLocalRandom.current());
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (Long id : order) {
+                    attempts.incrementAndGet();
+                    try {
+                        bloodRequestService.approveRequest(id);
+                        approvals.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+                        lastApproval.accumulateAndGet(System.nanoTime(), Math::max);
+                    } catch (RuntimeException e) {
+                        // Already processed, or out of stock.
+                    }
+                }
+                return null;
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        double approving = (lastApproval.get() - started) / 1e9;
+        executor.shutdown();
+
+        // Throughput while stock lasted; the attempts after that are all rejected. This is for reading
+        // alongside ConcurrentApprovalBenchmark in the benchmarks module, not a performance check.
+        logger.info("{} threads approved {} of {} requests in {} s ({} approvals/s); {} attempts in {} s",
+                THREADS, approvals.size(), REQUESTS, String.format("%.2f", approving),
+                String.format("%.0f", approvals.size() / approving), attempts.get(), String.format("%.2f", seconds));
+
+        assertThat(approvals.values()).allSatisfy(count -> assertThat(count.get()).isEqualTo(1));
+        assertThat(approvals).hasSize(STOCK);
+        assertThat(stockService.currentLevels(List.of(BLOOD_GROUP))).containsEntry(BLOOD_GROUP, 0);
+        // Every lot was drawn to zero, so every lot must have been marked depleted.
+        assertThat(inventory.getAvailableLots(BLOOD_GROUP)).isEmpty();
+        assertThat(bloodRequestRepository.findAllById(ids))
+                .filteredOn(request -> request.getStatus() == RequestStatus.APPROVED)
+                .extracting(BloodRequest::getId)
+                .containsExactlyInAnyOrderElementsOf(approvals.keySet());
+    }
+
+    @Test
+    void concurrentApproveAndRejectDecideEachRequestOnce() throws Exception {
+        String bloodGroup = "B-";
+        stockService.updateStock(bloodGroup, REQUESTS);
+        List<Long> ids = new ArrayList<>(REQUESTS);
+        for (int i = 0; i < REQUESTS; i++) {
+            ids.add(bloodRequestService.createRequest(pendingRequest(bloodGroup, i)).getId());
+        }
+
+        Map<Long, AtomicInteger> decisions = new ConcurrentHashMap<>();
+        Set<Long> approved = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            boolean approving = t % 2 == 0;
+            List<Long> order = new ArrayList<>(ids);
+            Collections.shuffle(order, ThreadLocalRandom.current());
+            workers.add(executor.submit(() -> {
+                start.await();
+                for (Long id : order) {
+                    try {
+                        if (approving) {
+                            bloodRequestService.approveRequest(id);
+                            approved.add(id);
+                        } else {
+                            bloodRequestService.rejectRequest(id);
+                        }
+                        decisions.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+                    } catch (RuntimeException e) {
+                        // Already processed.
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        assertThat(decisions).hasSize(REQUESTS);
+        assertThat(decisions.values()).allSatisfy(count -> assertThat(count.get()).isEqualTo(1));
+        assertThat(stockService.currentLevels(List.of(bloodGroup)))
+                .containsEntry(bloodGroup, REQUESTS - approved.size());
+        assertThat(bloodRequestRepository.findAllById(ids))
+                .filteredOn(request -> request.getStatus() == RequestStatus.APPROVED)
+                .extracting(BloodRequest::getId)
+                .containsExactlyInAnyOrderElementsOf(approved);
+    }
+
+    private static BloodRequest pendingRequest(String bloodGroup, int i) {
+        BloodRequest request = new BloodRequest();
+        request.setPatientName("Patient " + i);
+        request.setPatientAge(40);
+        request.setReason("Surgery");
+        request.setBloodGroup(bloodGroup);
+        request.setUnit(1);
+        return request;
+    }
+}
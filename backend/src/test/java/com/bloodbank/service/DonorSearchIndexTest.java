@@ -0,0 +1,208 @@
+package com.bloodbank.service;
+
+import com.bloodbank.dto.NearbyDonor;
+import com.bloodbank.model.Donor;
+import com.bloodbank.repository.DonorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the index's top-K answers against a brute-force scan of the same donors, after enough
+ * inserts, moves and removals to exercise slot reuse, and the replay of changes made during a rebuild.
+ */
+class DonorSearchIndexTest {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final Random random = new Random(42);
+    private final Map<Long, Donor> donors = new HashMap<>();
+    private DonorSearchIndex index;
+    private DonorRepository donorRepository;
+
+    @BeforeEach
+    void setUp() {
+        donorRepository = mock(DonorRepository.class);
+        index = new DonorSearchIndex();
+        ReflectionTestUtils.setField(index, "donorRepository", donorRepository);
+        ReflectionTestUtils.setField(index, "transactionManager", mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void nearestMatchesBruteForceAfterMovesAndRemovals() {
+        for (long id = 1; id <= 3000; id++) {
+            put(donor(id));
+        }
+        for (int i = 0; i < 1500; i++) {
+            long id = 1 + random.nextInt(3000);
+            if (random.nextBoolean()) {
+                donors.remove(id);
+                index.remove(id);
+            } else {
+                put(donor(id));
+            }
+        }
+
+        for (int query = 0; query < 300; query++) {
+            String recipient = BloodCompatibility.GROUPS[random.nextInt(BloodCompatibility.GROUP_COUNT)];
+            double latitude = 10 + random.nextDouble() * 2;
+            double longitude = 76 + random.nextDouble() * 2;
+            int limit = 1 + random.nextInt(25);
+            double maxDistanceKm = query % 3 == 0 ? 15 : 500;
+
+            assertThat(ids(index.findNearest(recipient, latitude, longitude, limit, maxDistanceKm)))
+                    .as("query %d", query)
+                    .isEqualTo(bruteForce(recipient, latitude, longitude, limit, maxDistanceKm));
+        }
+    }
+
+    @Test
+    void nearestReturnsNothingBeyondMaxDistance() {
+        Donor far = new Donor();
+        far.setId(1L);
+        far.setBloodGroup("O-");
+        far.setLatitude(40.0);
+        far.setLongitude(10.0);
+        put(far);
+
+        assertThat(index.findNearest("A+", 10.0, 76.0, 5, 100)).isEmpty();
+        assertThat(ids(index.findNearest("A+", 40.05, 10.05, 5, 100))).containsExactly(1L);
+    }
+
+    @Test
+    void rebuildKeepsChangesMadeWhileItWasReading() {
+        Donor moved = donor(1L);
+        Donor removed = donor(2L);
+        Donor added = donor(3L);
+        List<Object[]> rows = List.of(row(moved), row(removed));
+        when(donorRepository.streamLocatedDonors()).thenAnswer(invocation -> {
+            // Committed after the read took its snapshot.
+            moved.setLatitude(moved.getLatitude() + 0.5);
+            index.upsert(moved);
+            index.remove(removed.getId());
+            index.upsert(added);
+            return rows.stream();
+        });
+        put(moved);
+        put(removed);
+
+        index.rebuild();
+        donors.remove(removed.getId());
+        donors.put(added.getId(), added);
+
+        assertThat(ids(index.findNearest("AB+", 11.0, 77.0, 10, 1000)))
+                .isEqualTo(bruteForce("AB+", 11.0, 77.0, 10, 1000));
+        assertThat(ids(index.findNearest("AB+", 11.0, 77.0, 10, 1000))).containsExactlyInAnyOrder(1L, 3L);
+
+        when(donorRepository.streamLocatedDonors()).thenReturn(Stream.<Object[]>of(row(moved)));
+        index.rebuild();
+        assertThat(ids(index.findNearest("AB+", 11.0, 77.0, 10, 1000))).containsExactly(1L);
+    }
+
+    @Test
+    void overlappingRebuildsEachKeepTheChangesMadeWhileTheyRead() throws Exception {
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch secondReading = new CountDownLatch(1);
+        CountDownLatch releaseSecond = new CountDownLatch(1);
+        AtomicInteger reads = new AtomicInteger();
+        when(donorRepository.streamLocatedDonors()).thenAnswer(invocation -> {
+            if (reads.incrementAndGet() == 1) {
+                releaseFirst.await();
+            } else {
+                secondReading.countDown();
+                releaseSecond.await();
+            }
+            return Stream.<Object[]>empty();
+        });
+
+        ExecutorService rebuilders = Executors.newFixedThreadPool(2);
+        Future<?> first = rebuilders.submit(index::rebuild);
+        while (reads.get() == 0) {
+            Thread.sleep(5);
+        }
+        Future<?> second = rebuilders.submit(index::rebuild);
+        // Gives an unserialized second rebuild the chance to start reading alongside the first.
+        secondReading.await(200, TimeUnit.MILLISECONDS);
+        releaseFirst.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        assertThat(secondReading.await(10, TimeUnit.SECONDS)).isTrue();
+
+        Donor added = donor(1L);
+        put(added);
+        releaseSecond.countDown();
+        second.get(10, TimeUnit.SECONDS);
+        rebuilders.shutdown();
+
+        assertThat(ids(index.findNearest("AB+", 11.0, 77.0, 10, 1000))).containsExactly(1L);
+    }
+
+    private Donor donor(long id) {
+        Donor donor = new Donor();
+        donor.setId(id);
+        donor.setBloodGroup(BloodCompatibility.GROUPS[random.nextInt(BloodCompatibility.GROUP_COUNT)]);
+        donor.setLatitude(10 + random.nextDouble() * 2);
+        donor.setLongitude(76 + random.nextDouble() * 2);
+        return donor;
+    }
+
+    private void put(Donor donor) {
+        donors.put(donor.getId(), donor);
+        index.upsert(donor);
+    }
+
+    private static Object[] row(Donor donor) {
+        return new Object[]{donor.getId(), donor.getBloodGroup(), donor.getLatitude(), donor.getLongitude()};
+    }
+
+    private List<Long> bruteForce(String recipientGroup, double latitude, double longitude,
+                                  int limit, double maxDistanceKm) {
+        int mask = BloodCompatibility.compatibleDonorMask(BloodCompatibility.indexOf(recipientGroup));
+        List<Map.Entry<Long, Double>> candidates = new ArrayList<>();
+        for (Donor donor : donors.values()) {
+            if ((mask & (1 << BloodCompatibility.indexOf(donor.getBloodGroup()))) == 0) {
+                continue;
+            }
+            // The index stores coordinates as floats.
+            double distance = haversineKm(latitude, longitude,
+                    (float) donor.getLatitude().doubleValue(), (float) donor.getLongitude().doubleValue());
+            if (distance <= maxDistanceKm) {
+                candidates.add(Map.entry(donor.getId(), distance));
+            }
+        }
+        return candidates.stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.naturalOrder()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private static List<Long> ids(List<NearbyDonor> nearby) {
+        return nearby.stream().map(NearbyDonor::getDonorId).toList();
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
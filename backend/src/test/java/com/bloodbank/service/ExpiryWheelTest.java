@@ -0,0 +1,67 @@
+package com.bloodbank.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExpiryWheelTest {
+    private static final long TICK_MS = 1000;
+    private static final int SIZE = 8;
+
+    private final ExpiryWheel wheel = new ExpiryWheel(TICK_MS, SIZE, 0);
+
+    @Test
+    void lotComesDueOnTheFirstTickAtOrAfterItsDeadline() {
+        wheel.schedule(1, "A+", 2500);
+
+        assertThat(wheel.advance(2999)).isEmpty();
+        assertThat(lotIds(wheel.advance(3000))).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void deadlineMoreThanOneTurnAwayWaitsForItsTurn() {
+        wheel.schedule(1, "A+", 3000);
+        wheel.schedule(2, "A+", 3000 + SIZE * TICK_MS);
+
+        assertThat(lotIds(wheel.advance(3000))).containsExactly(1L);
+        assertThat(wheel.advance(3000 + SIZE * TICK_MS - 1)).isEmpty();
+        assertThat(lotIds(wheel.advance(3000 + SIZE * TICK_MS))).containsExactly(2L);
+    }
+
+    @Test
+    void pastDeadlineComesDueOnTheNextAdvance() {
+        wheel.advance(5000);
+        wheel.schedule(1, "A+", 1000);
+
+        assertThat(lotIds(wheel.advance(5000))).containsExactly(1L);
+    }
+
+    @Test
+    void pauseLongerThanOneTurnStillReturnsEveryDueLot() {
+        for (long id = 1; id <= 20; id++) {
+            wheel.schedule(id, "O-", id * TICK_MS);
+        }
+
+        assertThat(lotIds(wheel.advance(100 * TICK_MS))).hasSize(20);
+    }
+
+    @Test
+    void cancelledAndDuplicateEntriesAreNotReturned() {
+        wheel.schedule(1, "B+", 2000);
+        wheel.schedule(1, "B+", 2000);
+        wheel.schedule(2, "B+", 2000);
+        wheel.cancel(2);
+
+        assertThat(wheel.size()).isEqualTo(1);
+        List<ExpiryWheel.Entry> due = wheel.advance(2000);
+        assertThat(lotIds(due)).containsExactly(1L);
+        assertThat(due.get(0).bloodGroup()).isEqualTo("B+");
+    }
+
+    private static List<Long> lotIds(List<ExpiryWheel.Entry> entries) {
+        return entries.stream().map(ExpiryWheel.Entry::lotId).toList();
+    }
+}
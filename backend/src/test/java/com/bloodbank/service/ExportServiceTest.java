@@ -0,0 +1,106 @@
+package com.bloodbank.service;
+
+import com.bloodbank.config.AdaptiveConcurrencyLimiter;
+import com.bloodbank.config.BulkheadDataSource;
+import com.bloodbank.dto.DonationExportRow;
+import com.bloodbank.dto.RequestExportRow;
+import com.bloodbank.model.BloodDonate.DonationStatus;
+import com.bloodbank.model.BloodRequest.RequestStatus;
+import com.bloodbank.repository.BloodDonateRepository;
+import com.bloodbank.repository.BloodRequestRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ExportServiceTest {
+    private static final LocalDate DATE = LocalDate.of(2026, 1, 2);
+
+    private ExportService exportService;
+    private BloodDonateRepository bloodDonateRepository;
+    private BloodRequestRepository bloodRequestRepository;
+    private BulkheadDataSource bulkhead;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:export;DB_CLOSE_DELAY=-1");
+        bulkhead = new BulkheadDataSource(h2, new AdaptiveConcurrencyLimiter(1, 1, 0, 0, 2.0), 1, 0);
+        bloodDonateRepository = mock(BloodDonateRepository.class);
+        bloodRequestRepository = mock(BloodRequestRepository.class);
+        // As Spring Boot configures it: ISO dates rather than arrays.
+        objectMapper = Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+        exportService = new ExportService();
+        ReflectionTestUtils.setField(exportService, "bloodDonateRepository", bloodDonateRepository);
+        ReflectionTestUtils.setField(exportService, "bloodRequestRepository", bloodRequestRepository);
+        ReflectionTestUtils.setField(exportService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(exportService, "transactionManager", new DataSourceTransactionManager(bulkhead));
+        exportService.init();
+    }
+
+    @Test
+    void csvQuotesFieldsThatWouldBreakTheRow() throws Exception {
+        when(bloodRequestRepository.streamExportRows()).thenReturn(Stream.of(
+                new RequestExportRow(7L, 3L, null, "Doe, \"Jr\"", 40, "Broken\nleg", "A+", 2, RequestStatus.PENDING, DATE)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.writeRequests(ExportService.Format.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "id,patientId,donorId,patientName,patientAge,reason,bloodGroup,unit,status,date\r\n"
+                        + "7,3,,\"Doe, \"\"Jr\"\"\",40,\"Broken\nleg\",A+,2,PENDING,2026-01-02\r\n");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        when(bloodDonateRepository.streamExportRows()).thenReturn(Stream.of(
+                new DonationExportRow(1L, 5L, "alice", "O+", 1, 30, "Nothing", DonationStatus.APPROVED, DATE),
+                new DonationExportRow(2L, 6L, "bob", "B-", 2, 45, "Nothing", DonationStatus.PENDING, DATE)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.writeDonations(ExportService.Format.NDJSON, out);
+
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertThat(body).endsWith("\n");
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(1L);
+        assertThat(first.get("donorUsername").asText()).isEqualTo("alice");
+        assertThat(first.get("status").asText()).isEqualTo("APPROVED");
+        assertThat(first.get("date").asText()).isEqualTo("2026-01-02");
+        assertThat(objectMapper.readTree(lines[1]).get("bloodGroup").asText()).isEqualTo("B-");
+    }
+
+    @Test
+    void exportHoldsAStreamingPermitRatherThanARequestPermit() throws Exception {
+        int[] inFlight = new int[2];
+        when(bloodRequestRepository.streamExportRows()).thenAnswer(invocation -> {
+            inFlight[0] = bulkhead.getStreamingInFlight();
+            inFlight[1] = bulkhead.getLimiter().getInFlight();
+            return Stream.<RequestExportRow>empty();
+        });
+
+        exportService.writeRequests(ExportService.Format.NDJSON, new ByteArrayOutputStream());
+
+        assertThat(inFlight).containsExactly(1, 0);
+        assertThat(bulkhead.getStreamingInFlight()).isZero();
+        assertThat(bulkhead.getLimiter().getInFlight()).isZero();
+    }
+}
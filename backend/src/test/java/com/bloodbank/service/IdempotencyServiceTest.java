@@ -0,0 +1,103 @@
+package com.bloodbank.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyServiceTest {
+    private final IdempotencyService idempotencyService = new IdempotencyService();
+    private final AtomicInteger calls = new AtomicInteger();
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotencyService, "ttlMs", 60_000L);
+        ReflectionTestUtils.setField(idempotencyService, "maxEntries", 2);
+        request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void retryWithTheSameBodyIsReplayed() {
+        withBody("{\"ids\":[1,2]}");
+        assertThat(call("key").getStatusCode()).isEqualTo(HttpStatus.OK);
+        ResponseEntity<?> retry = call("key");
+
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void reusedKeyWithADifferentBodyIsRejected() {
+        withBody("{\"ids\":[1,2]}");
+        call("key");
+        withBody("{\"ids\":[3]}");
+
+        assertThat(call("key").getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void reusedKeyWithADifferentQueryIsRejected() {
+        request.setQueryString("substitute=false");
+        call("key");
+        request.setQueryString("substitute=true");
+
+        assertThat(call("key").getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void failedCallIsForgottenSoTheRetryRuns() {
+        CompletableFuture<ResponseEntity<?>> failed = idempotencyService.executeAsync("key", "PUT /api/requests/bulk/approve",
+                () -> CompletableFuture.failedFuture(new RuntimeException("Approval queue for A+ is full, try again shortly")));
+        assertThat(failed).isCompletedExceptionally();
+
+        ResponseEntity<?> retry = call("key");
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(retry.getHeaders().containsKey(IdempotencyService.REPLAYED_HEADER)).isFalse();
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void fullStoreEvictsTheOldestEntriesFirst() {
+        call("first");
+        call("second");
+        call("third");
+        assertThat(calls).hasValue(3);
+
+        call("second");
+        call("third");
+        assertThat(calls).as("recent keys are still replayed").hasValue(3);
+        call("first");
+        assertThat(calls).as("the oldest key was evicted").hasValue(4);
+    }
+
+    private ResponseEntity<?> call(String key) {
+        return idempotencyService.execute(key, "PUT /api/requests/bulk/approve", () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok("done");
+        }).join();
+    }
+
+    private void withBody(String body) {
+        request.setAttribute(IdempotencyService.BODY_HASH_ATTRIBUTE, body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,17 @@
+package com.bloodbank.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StockServiceTest {
+    private final StockService stockService = new StockService();
+
+    @Test
+    void availabilityOfNoUnitsIsRejected() {
+        assertThatThrownBy(() -> stockService.checkAvailability("A+", 0, true))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> stockService.checkAvailability("A+", -3, false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,108 @@
+package com.bloodbank.service;
+
+import com.bloodbank.dto.StockDelta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StockStreamServiceTest {
+    private StockStreamService streamService;
+    private StockService stockService;
+
+    @BeforeEach
+    void setUp() {
+        stockService = mock(StockService.class);
+        streamService = new StockStreamService();
+        ReflectionTestUtils.setField(streamService, "stockService", stockService);
+        ReflectionTestUtils.setField(streamService, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(streamService, "timeoutMs", 60_000L);
+        ReflectionTestUtils.setField(streamService, "pollIntervalMs", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(streamService, "senderThreads", 1);
+        streamService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamService.stop();
+    }
+
+    @Test
+    void changesWaitingOnABusySenderAreMergedPerBloodGroup() throws Exception {
+        when(stockService.getAllStocks()).thenReturn(
+                List.of(new StockLevel(1L, "A+", 10)),
+                List.of(new StockLevel(1L, "A+", 12)),
+                List.of(new StockLevel(1L, "A+", 15)));
+        // A single sender thread held up, standing in for a slow client.
+        ((ExecutorService) ReflectionTestUtils.getField(streamService, "sender")).shutdownNow();
+        ThreadPoolExecutor sender = (ThreadPoolExecutor) Executors.newFixedThreadPool(1);
+        ReflectionTestUtils.setField(streamService, "sender", sender);
+        CountDownLatch release = new CountDownLatch(1);
+        sender.execute(() -> awaitQuietly(release));
+
+        streamService.subscribe();
+        drainPublisher();
+        streamService.onStockChanged(new StockChangedEvent(stockService));
+        drainPublisher();
+        streamService.onStockChanged(new StockChangedEvent(stockService));
+        drainPublisher();
+
+        assertThat(sender.getQueue()).as("queued flushes").hasSize(1);
+        assertThat(pending(onlySubscriber())).containsExactly(Map.entry("A+", new StockDelta("A+", 5, 15)));
+
+        release.countDown();
+        sender.submit(() -> { }).get(5, TimeUnit.SECONDS);
+        assertThat(pending(onlySubscriber())).isEmpty();
+    }
+
+    @Test
+    void subscribersBeyondTheCapAreTurnedAway() throws Exception {
+        when(stockService.getAllStocks()).thenReturn(List.of(new StockLevel(1L, "A+", 10)));
+
+        streamService.subscribe();
+        streamService.subscribe();
+        drainPublisher();
+
+        assertThatThrownBy(() -> streamService.subscribe())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Too many stock stream subscribers");
+    }
+
+    private void drainPublisher() throws Exception {
+        ExecutorService publisher = (ExecutorService) ReflectionTestUtils.getField(streamService, "publisher");
+        publisher.submit(() -> { }).get(5, TimeUnit.SECONDS);
+    }
+
+    private Object onlySubscriber() {
+        Set<?> subscribers = (Set<?>) ReflectionTestUtils.getField(streamService, "subscribers");
+        assertThat(subscribers).hasSize(1);
+        return subscribers.iterator().next();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, StockDelta> pending(Object subscriber) {
+        return (Map<String, StockDelta>) ReflectionTestUtils.getField(subscriber, "pending");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+import { useEffect, useRef } from 'react';
+import axios from 'axios';
+
+const RECONNECT_DELAY_MS = 5000;
+
+// Subscribes to live stock levels. EventSource cannot send the Authorization header, so every
+// connection is opened with a short-lived stream token fetched with the access token, and a
+// dropped connection is reopened with a fresh one.
+const useStockStream = (onSnapshot, onChange) => {
+  const handlers = useRef({ onSnapshot, onChange });
+  handlers.current = { onSnapshot, onChange };
+
+  useEffect(() => {
+    let source = null;
+    let retry = null;
+    let closed = false;
+
+    const scheduleReconnect = () => {
+      if (!closed) {
+        retry = setTimeout(connect, RECONNECT_DELAY_MS);
+      }
+    };
+
+    const connect = async () => {
+      try {
+        const { data } = await axios.post('/api/stock/stream/token');
+        if (closed) {
+          return;
+        }
+        source = new EventSource(`/api/stock/stream?token=${encodeURIComponent(data.token)}`);
+        source.addEventListener('snapshot', (e) => handlers.current.onSnapshot(JSON.parse(e.data)));
+        source.addEventListener('stock', (e) => handlers.current.onChange(JSON.parse(e.data)));
+        source.onerror = () => {
+          source.close();
+          scheduleReconnect();
+        };
+      } catch (error) {
+        console.error('Error opening stock stream:', error);
+        scheduleReconnect();
+      }
+    };
+
+    connect();
+    return () => {
+      closed = true;
+      clearTimeout(retry);
+      if (source) {
+        source.close();
+      }
+    };
+  }, []);
+};
+
+export default useStockStream;
@@ -1,5 +1,8 @@
 import React, { useState, useEffect } from 'react';
 import axios from 'axios';
+import useStockStream from '../hooks/useStockStream';
+
+const PAGE_SIZE = 50;
 
 const AdminDashboard = () => {
   const [stats, setStats] = useState({
@@ -15,43 +18,73 @@ const AdminDashboard = () => {
   const [pendingRequests, setPendingRequests] = useState([]);
   const [donations, setDonations] = useState([]);
   const [activeTab, setActiveTab] = useState('dashboard');
+  const [nextCursors, setNextCursors] = useState({});
 
   useEffect(() => {
     loadDashboardData();
   }, []);
 
+  useEffect(() => {
+    loadTabData(activeTab);
+  }, [activeTab]);
+
+  useStockStream(
+    (levels) => setStocks(levels),
+    (changes) => setStocks(current => current.map(stock => {
+      const change = changes.find(c => c.bloodGroup === stock.bloodGroup);
+      return change ? { ...stock, unit: change.unit } : stock;
+    }))
+  );
+
+  useEffect(() => {
+    setStats(current => ({ ...current, totalBloodUnit: stocks.reduce((sum, stock) => sum + stock.unit, 0) }));
+  }, [stocks]);
+
   const loadDashboardData = async () => {
     try {
-      const [stocksRes, donorsRes, patientsRes, requestsRes, donationsRes] = await Promise.all([
-        axios.get('/api/stock'),
-        axios.get('/api/donors'),
-        axios.get('/api/patients'),
-        axios.get('/api/requests'),
-        axios.get('/api/donations')
-      ]);
+      const { data: summary } = await axios.get('/api/admin/summary');
 
-      setStocks(stocksRes.data);
-      setDonors(donorsRes.data);
-      setPatients(patientsRes.data);
-      
-      const allRequests = requestsRes.data;
-      setPendingRequests(allRequests.filter(r => r.status === 'PENDING'));
-      
-      const totalUnit = stocksRes.data.reduce((sum, stock) => sum + stock.unit, 0);
+      setStocks(summary.stocks);
+      setPendingRequests(summary.pendingRequests.items);
       setStats({
-        totalDonors: donorsRes.data.length,
-        totalPatients: patientsRes.data.length,
-        totalRequests: allRequests.length,
-        approvedRequests: allRequests.filter(r => r.status === 'APPROVED').length,
-        totalBloodUnit: totalUnit
+        totalDonors: summary.totalDonors,
+        totalPatients: summary.totalPatients,
+        totalRequests: summary.totalRequests,
+        approvedRequests: summary.requestsByStatus.APPROVED || 0,
+        totalBloodUnit: summary.totalBloodUnit
       });
-
-      setDonations(donationsRes.data);
     } catch (error) {
       console.error('Error loading dashboard data:', error);
     }
   };
 
+  // The tabs page through the lists with the keyset endpoints; a cursor appends the next page.
+  const tabPages = {
+    donors: { path: '/api/donors/page', setRows: setDonors },
+    patients: { path: '/api/patients/page', setRows: setPatients },
+    donations: { path: '/api/donations/page', setRows: setDonations }
+  };
+
+  const loadTabData = async (tab, cursor) => {
+    const page = tabPages[tab];
+    if (!page) {
+      return;
+    }
+    try {
+      const { data } = await axios.get(page.path, { params: { cursor, limit: PAGE_SIZE } });
+      page.setRows(current => (cursor ? [...current, ...data.items] : data.items));
+      setNextCursors(current => ({ ...current, [tab]: data.nextCursor }));
+    } catch (error) {
+      console.error('Error loading ' + tab + ':', error);
+    }
+  };
+
+  const loadMoreButton = (tab) => nextCursors[tab] && (
+    <button className="btn btn-secondary" onClick={() => loadTabData(tab, nextCursors[tab])}>
+      Load more
+    </button>
+  );
+
   const handleApproveRequest = async (id) => {
     try {
       await axios.put(`/api/requests/${id}/approve`);
@@ -74,6 +107,7 @@ const AdminDashboard = () => {
     try {
       await axios.put(`/api/donations/${id}/approve`);
       loadDashboardData();
+      loadTabData('donations');
     } catch (error) {
       console.error('Error approving donation:', error);
     }
@@ -83,6 +117,7 @@ const AdminDashboard = () => {
     try {
       await axios.put(`/api/donations/${id}/reject`);
       loadDashboardData();
+      loadTabData('donations');
     } catch (error) {
       console.error('Error rejecting donation:', error);
     }
@@ -151,7 +186,7 @@ const AdminDashboard = () => {
             <h2>Blood Stock Management</h2>
             <div className="blood-group-grid">
               {stocks.map(stock => (
-                <div key={stock.id} className="blood-group-card">
+                <div key={stock.bloodGroup} className="blood-group-card">
                   <h4>{stock.bloodGroup}</h4>
                   <div className="unit">{stock.unit} Units</div>
                   <input
@@ -189,6 +224,7 @@ const AdminDashboard = () => {
                 ))}
               </tbody>
             </table>
+            {loadMoreButton('donors')}
           </div>
         )}
 
@@ -217,6 +253,7 @@ const AdminDashboard = () => {
                 ))}
               </tbody>
             </table>
+            {loadMoreButton('patients')}
           </div>
         )}
 
@@ -297,6 +334,7 @@ const AdminDashboard = () => {
                 ))}
               </tbody>
             </table>
+            {loadMoreButton('donations')}
           </div>
         )}
       </div>